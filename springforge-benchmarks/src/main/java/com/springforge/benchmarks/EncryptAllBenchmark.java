@@ -0,0 +1,69 @@
+package com.springforge.benchmarks;
+
+import com.springforge.common.crypto.StringEncryptor;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Batch encryption of many values with {@code encryptAll}, compared with a sequential loop. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncryptAllBenchmark {
+
+  private static final String PASSWORD = "MySuperSecretKey";
+
+  @Param({"CBC", "GCM"})
+  public String mode;
+
+  @Param({"1000"})
+  public int count;
+
+  private StringEncryptor encryptor;
+
+  private List<String> values;
+
+  private List<String> encrypted;
+
+  @Setup
+  public void setup() {
+    encryptor = "CBC".equals(mode) ? StringEncryptor.cbc(PASSWORD) : StringEncryptor.gcm(PASSWORD);
+    values = IntStream.range(0, count).mapToObj(i -> "value" + i).collect(Collectors.toList());
+    encrypted = encryptor.encryptAll(values);
+  }
+
+  @Benchmark
+  public List<String> encryptEach() {
+    return values.stream().map(encryptor::encrypt).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<String> encryptAll() {
+    return encryptor.encryptAll(values);
+  }
+
+  @Benchmark
+  public List<String> decryptEach() {
+    return encrypted.stream().map(encryptor::decrypt).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<String> decryptAll() {
+    return encryptor.decryptAll(encrypted);
+  }
+}
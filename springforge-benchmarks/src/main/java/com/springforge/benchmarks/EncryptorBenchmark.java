@@ -0,0 +1,99 @@
+package com.springforge.benchmarks;
+
+import com.springforge.common.crypto.BytesEncryptor;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Concurrent encryption throughput of a shared {@link BytesEncryptor}, which reuses one cipher per
+ * thread, compared with looking up and initializing a new cipher on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class EncryptorBenchmark {
+
+  private static final String PASSWORD = "MySuperSecretKey";
+
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  @Param({"CBC", "GCM"})
+  public String mode;
+
+  @Param({"256"})
+  public int size;
+
+  private BytesEncryptor encryptor;
+
+  private SecretKey key;
+
+  private byte[] value;
+
+  private byte[] encrypted;
+
+  @Setup
+  public void setup() throws Exception {
+    encryptor = "CBC".equals(mode) ? BytesEncryptor.cbc(PASSWORD) : BytesEncryptor.gcm(PASSWORD);
+    value = new byte[size];
+    RANDOM.nextBytes(value);
+    encrypted = encryptor.encrypt(value);
+
+    final byte[] salt = new byte[8];
+    RANDOM.nextBytes(salt);
+    final PBEKeySpec spec = new PBEKeySpec(PASSWORD.toCharArray(), salt, 1024, 256);
+    key =
+        new SecretKeySpec(
+            SecretKeyFactory.getInstance("PBKDF2WithHmacSHA1").generateSecret(spec).getEncoded(),
+            "AES");
+  }
+
+  @Benchmark
+  public byte[] encrypt() {
+    return encryptor.encrypt(value);
+  }
+
+  @Benchmark
+  public byte[] decrypt() {
+    return encryptor.decrypt(encrypted);
+  }
+
+  // the former path, a provider lookup and a new cipher for each value
+  @Benchmark
+  public byte[] encryptNewCipher() throws Exception {
+    final byte[] iv = new byte[16];
+    final AlgorithmParameterSpec params;
+    if ("CBC".equals(mode)) {
+      params = new IvParameterSpec(iv);
+    } else {
+      RANDOM.nextBytes(iv);
+      params = new GCMParameterSpec(128, iv);
+    }
+    final Cipher cipher = Cipher.getInstance(encryptor.getTransformation());
+    cipher.init(Cipher.ENCRYPT_MODE, key, params);
+    return cipher.doFinal(value);
+  }
+}
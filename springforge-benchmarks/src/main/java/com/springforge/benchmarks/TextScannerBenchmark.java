@@ -0,0 +1,81 @@
+package com.springforge.benchmarks;
+
+import com.springforge.common.HtmlUtils;
+import com.springforge.common.StringUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Text scans with and without the vector module, the scalar path is used whenever {@code
+ * jdk.incubator.vector} isn't added to the JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TextScannerBenchmark {
+
+  @Param({"16", "4096"})
+  public int length;
+
+  private String text;
+
+  private String blank;
+
+  @Setup
+  public void setup() {
+    final StringBuilder builder = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      builder.append((char) ('a' + i % 26));
+    }
+    text = builder.toString();
+    blank = " ".repeat(length);
+  }
+
+  @Benchmark
+  @Fork(1)
+  public boolean isAscii() {
+    return StringUtils.isAscii(text);
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+  public boolean isAsciiVector() {
+    return StringUtils.isAscii(text);
+  }
+
+  @Benchmark
+  @Fork(1)
+  public boolean isBlank() {
+    return StringUtils.isBlank(blank);
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+  public boolean isBlankVector() {
+    return StringUtils.isBlank(blank);
+  }
+
+  @Benchmark
+  @Fork(1)
+  public String escape() {
+    return HtmlUtils.escape(text);
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+  public String escapeVector() {
+    return HtmlUtils.escape(text);
+  }
+}
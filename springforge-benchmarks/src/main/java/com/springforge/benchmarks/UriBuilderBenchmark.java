@@ -0,0 +1,42 @@
+package com.springforge.benchmarks;
+
+import com.springforge.common.UriBuilder;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Parsing an uri, adding a query param and building it back with both outputs. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UriBuilderBenchmark {
+
+  private static final String URI =
+      "https://user@example.com:8443/api/v1/contacts/42?fields=name,email&sort=name#details";
+
+  @Benchmark
+  public UriBuilder parse() {
+    return UriBuilder.from(URI);
+  }
+
+  @Benchmark
+  public URI toUri() {
+    return UriBuilder.from(URI).addQueryParam("page", "2").toUri();
+  }
+
+  @Benchmark
+  public String toUriString() {
+    return UriBuilder.from(URI).addQueryParam("page", "2").toUriString();
+  }
+}
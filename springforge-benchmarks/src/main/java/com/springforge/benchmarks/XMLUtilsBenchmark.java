@@ -0,0 +1,61 @@
+package com.springforge.benchmarks;
+
+import com.springforge.common.XMLUtils;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Parsing of small documents with the pooled parsers of {@link XMLUtils}, compared with a new
+ * hardened factory and parser per document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XMLUtilsBenchmark {
+
+  private static final byte[] XML =
+      ("<domain-models xmlns=\"urn:test\">"
+              + "<entity name=\"Contact\"><string name=\"name\"/></entity>"
+              + "<entity name=\"Address\"><string name=\"city\"/></entity>"
+              + "</domain-models>")
+          .getBytes(StandardCharsets.UTF_8);
+
+  @Benchmark
+  public Document parse() throws Exception {
+    return XMLUtils.parse(new ByteArrayInputStream(XML));
+  }
+
+  @Benchmark
+  public Document parseNewBuilder() throws Exception {
+    return XMLUtils.createDocumentBuilderFactory(true)
+        .newDocumentBuilder()
+        .parse(new ByteArrayInputStream(XML));
+  }
+
+  @Benchmark
+  public void saxParse() throws Exception {
+    XMLUtils.parse(new ByteArrayInputStream(XML), new DefaultHandler());
+  }
+
+  @Benchmark
+  public void saxParseNewParser() throws Exception {
+    XMLUtils.createSAXParserFactory(true)
+        .newSAXParser()
+        .parse(new ByteArrayInputStream(XML), new DefaultHandler());
+  }
+}
@@ -0,0 +1,157 @@
+package com.springforge.common.reflections;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sub type and annotation queries of {@link ClassScanner} on a synthetic classpath of 50k classes,
+ * compared with the former full map recursion over the same collected data.
+ *
+ * <p>The classes are generated with ASM as chains of {@code depth} classes, each one extending the
+ * previous, and every tenth class is annotated. The benchmark lives in the scanner package to
+ * read the class data the way the scanner does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassScannerBenchmark {
+
+  private static final int CLASSES = 50_000;
+
+  private static final String PACKAGE = "bench";
+  private static final String ROOT = PACKAGE + ".Root";
+  private static final String MARKER = PACKAGE + ".Marker";
+
+  @Param({"10", "100"})
+  public int depth;
+
+  private Path classes;
+
+  private URLClassLoader loader;
+
+  private ClassScanner scanner;
+
+  private Map<String, ClassScanner.Collector> collectors;
+
+  // the head of a chain, its sub types are the rest of the chain
+  private String head;
+
+  @Setup
+  public void setup() throws IOException {
+    classes = Files.createTempDirectory("class-scanner-benchmark");
+    collectors = new HashMap<>();
+
+    write(ROOT.replace('.', '/'), null, Opcodes.ACC_PUBLIC | Opcodes.ACC_INTERFACE, false);
+    for (int i = 0; i < CLASSES; i++) {
+      final String name = PACKAGE + "/C" + i;
+      final String superName = i % depth == 0 ? null : PACKAGE + "/C" + (i - 1);
+      write(name, superName, Opcodes.ACC_PUBLIC, i % 10 == 0);
+    }
+    head = PACKAGE + ".C" + (CLASSES / 2 / depth * depth);
+
+    loader = new URLClassLoader(new URL[] {classes.toUri().toURL()}, null);
+    scanner = new ClassScanner(loader, PACKAGE);
+    // scan and build the reverse maps once, the benchmarks measure the queries
+    scanner.getSubTypesMetadataOf(ROOT);
+  }
+
+  private void write(String name, String superName, int access, boolean annotated)
+      throws IOException {
+    final ClassWriter writer = new ClassWriter(0);
+    final boolean iface = (access & Opcodes.ACC_INTERFACE) != 0;
+    writer.visit(
+        Opcodes.V17,
+        iface ? access | Opcodes.ACC_ABSTRACT : access,
+        name,
+        null,
+        superName == null ? "java/lang/Object" : superName,
+        iface || superName != null ? null : new String[] {ROOT.replace('.', '/')});
+    if (annotated) {
+      writer.visitAnnotation("L" + MARKER.replace('.', '/') + ";", true).visitEnd();
+    }
+    writer.visitEnd();
+
+    final byte[] bytes = writer.toByteArray();
+    final Path file = classes.resolve(name + ".class");
+    Files.createDirectories(file.getParent());
+    Files.write(file, bytes);
+    collectors.put(
+        name.replace('/', '.'), ClassScanner.Collector.read(new ByteArrayInputStream(bytes)));
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    loader.close();
+    try (Stream<Path> files = Files.walk(classes)) {
+      files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+    }
+  }
+
+  @Benchmark
+  public Set<ClassMetadata> subTypes() {
+    return scanner.getSubTypesMetadataOf(head);
+  }
+
+  @Benchmark
+  public Set<String> subTypesFullScan() {
+    return subTypesOf(head);
+  }
+
+  @Benchmark
+  public Set<ClassMetadata> annotated() {
+    return scanner.getTypesMetadataAnnotatedWith(MARKER);
+  }
+
+  @Benchmark
+  public Set<String> annotatedFullScan() {
+    final Set<String> types = new HashSet<>();
+    for (Map.Entry<String, ClassScanner.Collector> entry : collectors.entrySet()) {
+      final Set<String> annotations = entry.getValue().annotations;
+      if (annotations != null && annotations.contains(MARKER)) {
+        types.add(entry.getKey());
+      }
+    }
+    return types;
+  }
+
+  // the recursion used before the reverse maps, one pass over all classes per match
+  private Set<String> subTypesOf(String type) {
+    final Set<String> types = new HashSet<>();
+    for (Map.Entry<String, ClassScanner.Collector> entry : collectors.entrySet()) {
+      final Set<String> superNames = entry.getValue().superNames;
+      if (superNames != null && superNames.contains(type)) {
+        types.add(entry.getKey());
+        types.addAll(subTypesOf(entry.getKey()));
+      }
+    }
+    return types;
+  }
+}
@@ -32,7 +32,6 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import javax.xml.parsers.SAXParser;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.csv.CSVRecord;
@@ -160,7 +159,6 @@ public class I18nExtractor {
 
       log.debug("processing XML for: {}", base.getParent().relativize(file));
 
-      final SAXParser parser = XMLUtils.createSAXParser();
       final DefaultHandler handler =
           new DefaultHandler() {
 
@@ -248,7 +246,7 @@ public class I18nExtractor {
             }
           };
 
-      parser.parse(file.toFile(), handler);
+      XMLUtils.parse(file.toFile(), handler);
     }
 
     private void processHtml(Path file) throws Exception {
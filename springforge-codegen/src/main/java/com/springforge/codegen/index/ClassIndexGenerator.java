@@ -0,0 +1,43 @@
+package com.springforge.codegen.index;
+
+import com.springforge.common.reflections.ClassIndex;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Build step generating the {@link ClassIndex} of a module from its compiled classes, so that the
+ * class finders can skip reading its class files at runtime. It is not part of the build by
+ * default, it has to be run on the compiled classes before they are packaged.
+ */
+public class ClassIndexGenerator {
+
+  private static final Logger log = LoggerFactory.getLogger(ClassIndexGenerator.class);
+
+  private File classesPath;
+
+  public ClassIndexGenerator() {}
+
+  public ClassIndexGenerator(File classesPath) {
+    this.classesPath = classesPath;
+  }
+
+  public void setClassesPath(File classesPath) {
+    this.classesPath = classesPath;
+  }
+
+  public void start() throws IOException {
+    log.info("Generating class index...");
+    log.info("Classes path: {}", classesPath);
+
+    if (classesPath == null || !classesPath.isDirectory()) {
+      log.info("No classes found, skipping class index.");
+      return;
+    }
+
+    final Path target = ClassIndex.write(classesPath.toPath());
+    log.info("generating: {}", target);
+  }
+}
@@ -0,0 +1,53 @@
+package com.springforge.codegen.index;
+
+import com.springforge.common.reflections.ClassIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassIndexGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testIndexGeneration() throws IOException {
+        Path classes = tempDir.resolve("classes");
+        copyClass(classes, ClassIndexGenerator.class);
+
+        new ClassIndexGenerator(classes.toFile()).start();
+
+        Path index = classes.resolve(ClassIndex.LOCATION);
+        assertTrue(Files.exists(index), "Index file should be generated");
+
+        List<String> lines = Files.readAllLines(index);
+        assertEquals(1, lines.size());
+        String expected = ClassIndexGenerator.class.getName() + "|java.lang.Object|";
+        assertTrue(lines.get(0).startsWith(expected));
+    }
+
+    @Test
+    void testMissingClassesPath() throws IOException {
+        ClassIndexGenerator generator = new ClassIndexGenerator();
+        generator.setClassesPath(tempDir.resolve("missing").toFile());
+        generator.start();
+
+        assertFalse(Files.exists(tempDir.resolve("missing")));
+    }
+
+    private void copyClass(Path target, Class<?> type) throws IOException {
+        String name = type.getName().replace('.', '/') + ".class";
+        Path file = target.resolve(name);
+        Files.createDirectories(file.getParent());
+        try (InputStream is = type.getClassLoader().getResourceAsStream(name)) {
+            Files.copy(is, file);
+        }
+    }
+}
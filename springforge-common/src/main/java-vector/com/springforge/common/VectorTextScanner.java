@@ -0,0 +1,81 @@
+package com.springforge.common;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The vectorized scans of the {@link TextScanner}, compiled against the incubating Vector API.
+ *
+ * <p>It is compiled on its own with the module added, and only loaded by name when the {@code
+ * jdk.incubator.vector} module is resolved.
+ */
+final class VectorTextScanner implements TextScanner.ChunkScanner {
+
+  private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+  VectorTextScanner() {}
+
+  @Override
+  public boolean isSupported() {
+    return SPECIES.length() >= 8;
+  }
+
+  @Override
+  public int indexOf(int kind, char[] chars, int length) {
+    final int bound = SPECIES.loopBound(length);
+    int i = 0;
+    for (; i < bound; i += SPECIES.length()) {
+      final ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i);
+      final VectorMask<Short> mask;
+      switch (kind) {
+        case TextScanner.NON_ASCII:
+          mask = nonAscii(v);
+          break;
+        case TextScanner.NON_SPACE:
+          mask = nonSpace(v);
+          break;
+        default:
+          mask = htmlEscape(v);
+      }
+      if (mask.anyTrue()) {
+        return i + mask.firstTrue();
+      }
+    }
+    for (; i < length; i++) {
+      if (TextScanner.matches(kind, chars[i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static VectorMask<Short> nonAscii(ShortVector v) {
+    return v.compare(VectorOperators.UNSIGNED_LT, (short) 32)
+        .or(v.compare(VectorOperators.UNSIGNED_GT, (short) 126));
+  }
+
+  private static VectorMask<Short> nonSpace(ShortVector v) {
+    return v.eq((short) ' ')
+        .or(between(v, '\t', '\r'))
+        .or(between(v, '\u001c', '\u001f'))
+        .not();
+  }
+
+  private static VectorMask<Short> htmlEscape(ShortVector v) {
+    return v.compare(VectorOperators.UNSIGNED_LT, (short) 32)
+        .or(v.eq((short) '\u007f'))
+        .or(v.eq((short) '<'))
+        .or(v.eq((short) '>'))
+        .or(v.eq((short) '&'))
+        .or(v.eq((short) '"'))
+        .or(v.eq((short) '\''))
+        .or(between(v, '\u2013', '\u2028'))
+        .or(v.compare(VectorOperators.UNSIGNED_GE, (short) '\ufdd0'));
+  }
+
+  private static VectorMask<Short> between(ShortVector v, char min, char max) {
+    return v.sub((short) min).compare(VectorOperators.UNSIGNED_LE, (short) (max - min));
+  }
+}
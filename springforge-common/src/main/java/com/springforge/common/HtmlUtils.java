@@ -1,6 +1,9 @@
 
 package com.springforge.common;
 
+import java.io.IOException;
+import java.io.Writer;
+
 /** This class provides some helper methods escaping, rendering, replacing HTML text */
 public class HtmlUtils {
 
@@ -8,61 +11,77 @@ public class HtmlUtils {
    * Escapes the text. It is safe to use in an HTML context.
    *
    * @param text the text to escape
-   * @return the escaped HTML text, or <code>null</code> if the text is <code>null</code>
+   * @return the escaped HTML text, or <code>null</code> if the text is <code>null</code>, or the
+   *     same text if there is nothing to escape
    */
   public static String escape(String text) {
+    return _escape(text, false);
+  }
+
+  /**
+   * Escapes the text into the given output, without creating an escaped copy of the text. It is
+   * safe to use in an HTML context.
+   *
+   * @param text the text to escape, nothing is written if <code>null</code>
+   * @param out the output to write the escaped text to
+   * @throws IOException if the output can't be written
+   */
+  public static void escape(CharSequence text, Appendable out) throws IOException {
+    _escape(text, out, false);
+  }
+
+  /**
+   * Escapes the attribute value. It is safe to be use in an attribute value.
+   *
+   * @param attribute the attribute to escape
+   * @return the escaped attribute value, or <code>null</code> if the attribute value is <code>null
+   *     </code>, or the same value if there is nothing to escape
+   */
+  public static String escapeAttribute(String attribute) {
+    return _escape(attribute, true);
+  }
+
+  /**
+   * Escapes the attribute value into the given output, without creating an escaped copy of the
+   * value. It is safe to be use in an attribute value.
+   *
+   * @param attribute the attribute to escape, nothing is written if <code>null</code>
+   * @param out the output to write the escaped attribute value to
+   * @throws IOException if the output can't be written
+   */
+  public static void escapeAttribute(CharSequence attribute, Appendable out) throws IOException {
+    _escape(attribute, out, true);
+  }
+
+  private static String _escape(String text, boolean attribute) {
     if (text == null) {
       return null;
     }
 
-    if (text.length() == 0) {
-      return "";
+    // most values have nothing to escape, find the first candidate in bulk
+    final int first = TextScanner.indexOf(TextScanner.HTML_ESCAPE, text, 0);
+
+    if (first < 0) {
+      return text;
     }
 
     StringBuilder sb = null;
 
     int lastReplacementIndex = 0;
 
-    for (int i = 0; i < text.length(); i++) {
-      char c = text.charAt(i);
+    for (int i = first; i < text.length(); i++) {
+      String replacement = _replacement(text.charAt(i), attribute);
 
-      if ((c < 256) && ((c >= 128) || _VALID_CHARS[c])) {
-        continue;
-      }
-
-      String replacement = null;
-
-      if (c == '<') {
-        replacement = "&lt;";
-      } else if (c == '>') {
-        replacement = "&gt;";
-      } else if (c == '&') {
-        replacement = "&amp;";
-      } else if (c == '"') {
-        replacement = "&#34;";
-      } else if (c == '\'') {
-        replacement = "&#39;";
-      } else if (c == '\u00bb') {
-        replacement = "&#187;";
-      } else if (c == '\u2013') {
-        replacement = "&#8211;";
-      } else if (c == '\u2014') {
-        replacement = "&#8212;";
-      } else if (c == '\u2028') {
-        replacement = "&#8232;";
-      } else if (!_isValidXmlCharacter(c) || _isUnicodeCompatibilityCharacter(c)) {
-
-        replacement = " ";
-      } else {
+      if (replacement == null) {
         continue;
       }
 
       if (sb == null) {
-        sb = new StringBuilder();
+        sb = new StringBuilder(text.length() + 64);
       }
 
       if (i > lastReplacementIndex) {
-        sb.append(text.substring(lastReplacementIndex, i));
+        sb.append(text, lastReplacementIndex, i);
       }
 
       sb.append(replacement);
@@ -75,77 +94,73 @@ public class HtmlUtils {
     }
 
     if (lastReplacementIndex < text.length()) {
-      sb.append(text.substring(lastReplacementIndex));
+      sb.append(text, lastReplacementIndex, text.length());
     }
 
     return sb.toString();
   }
 
-  /**
-   * Escapes the attribute value. It is safe to be use in an attribute value.
-   *
-   * @param attribute the attribute to escape
-   * @return the escaped attribute value, or <code>null</code> if the attribute value is <code>null
-   *     </code>
-   */
-  public static String escapeAttribute(String attribute) {
-    if (attribute == null) {
-      return null;
-    }
-
-    if (attribute.length() == 0) {
-      return "";
+  private static void _escape(CharSequence text, Appendable out, boolean attribute)
+      throws IOException {
+    if (text == null) {
+      return;
     }
 
-    StringBuilder sb = null;
     int lastReplacementIndex = 0;
 
-    for (int i = 0; i < attribute.length(); i++) {
-      char c = attribute.charAt(i);
-
-      if (c < _ATTRIBUTE_ESCAPES.length) {
-        String replacement = _ATTRIBUTE_ESCAPES[c];
-
-        if (replacement == null) {
-          continue;
-        }
+    for (int i = TextScanner.indexOf(TextScanner.HTML_ESCAPE, text, 0);
+        i >= 0 && i < text.length();
+        i++) {
+      String replacement = _replacement(text.charAt(i), attribute);
 
-        if (sb == null) {
-          sb = new StringBuilder(attribute.length() + 64);
-        }
-
-        if (i > lastReplacementIndex) {
-          sb.append(attribute, lastReplacementIndex, i);
-        }
+      if (replacement == null) {
+        continue;
+      }
 
-        sb.append(replacement);
+      if (i > lastReplacementIndex) {
+        _append(out, text, lastReplacementIndex, i);
+      }
 
-        lastReplacementIndex = i + 1;
-      } else if (!_isValidXmlCharacter(c) || _isUnicodeCompatibilityCharacter(c)) {
+      out.append(replacement);
 
-        if (sb == null) {
-          sb = new StringBuilder(attribute.length() + 64);
-        }
+      lastReplacementIndex = i + 1;
+    }
 
-        if (i > lastReplacementIndex) {
-          sb.append(attribute, lastReplacementIndex, i);
-        }
+    if (lastReplacementIndex < text.length()) {
+      _append(out, text, lastReplacementIndex, text.length());
+    }
+  }
 
-        sb.append(Chars.SPACE);
+  private static void _append(Appendable out, CharSequence text, int start, int end)
+      throws IOException {
+    // Writer.append(CharSequence, int, int) would create a sub sequence
+    if (out instanceof Writer && text instanceof String) {
+      ((Writer) out).write((String) text, start, end - start);
+    } else {
+      out.append(text, start, end);
+    }
+  }
 
-        lastReplacementIndex = i + 1;
-      }
+  private static String _replacement(char c, boolean attribute) {
+    if (c < 256) {
+      return attribute ? _ATTRIBUTE_ESCAPES[c] : _ESCAPES[c];
     }
 
-    if (sb == null) {
-      return attribute;
+    if (!attribute) {
+      if (c == '\u2013') {
+        return "&#8211;";
+      } else if (c == '\u2014') {
+        return "&#8212;";
+      } else if (c == '\u2028') {
+        return "&#8232;";
+      }
     }
 
-    if (lastReplacementIndex < attribute.length()) {
-      sb.append(attribute, lastReplacementIndex, attribute.length());
+    if (!_isValidXmlCharacter(c) || _isUnicodeCompatibilityCharacter(c)) {
+      return " ";
     }
 
-    return sb.toString();
+    return null;
   }
 
   private static boolean _isValidXmlCharacter(char c) {
@@ -175,7 +190,7 @@ public class HtmlUtils {
 
   private static final String[] _ATTRIBUTE_ESCAPES = new String[256];
 
-  private static final boolean[] _VALID_CHARS = new boolean[256];
+  private static final String[] _ESCAPES = new String[256];
 
   static {
     for (int i = 0; i < 256; i++) {
@@ -185,19 +200,27 @@ public class HtmlUtils {
         _ATTRIBUTE_ESCAPES[i] = " ";
       }
 
-      _ATTRIBUTE_ESCAPES[Chars.AMPERSAND] = "&amp;";
-      _ATTRIBUTE_ESCAPES[Chars.APOSTROPHE] = "&#39;";
-      _ATTRIBUTE_ESCAPES[Chars.GREATER_THAN] = "&gt;";
-      _ATTRIBUTE_ESCAPES[Chars.LESS_THAN] = "&lt;";
-      _ATTRIBUTE_ESCAPES[Chars.QUOTE] = "&quot;";
+      // letters, digits and latin-1 chars are kept as is
+      if (c >= 128 || Character.isLetterOrDigit(c) || c == '-' || c == '_') {
+        continue;
+      }
 
-      if (Character.isLetterOrDigit(c)) {
-        _VALID_CHARS[i] = true;
+      if (!_isValidXmlCharacter(c) || _isUnicodeCompatibilityCharacter(c)) {
+        _ESCAPES[i] = " ";
       }
     }
 
-    _VALID_CHARS['-'] = true;
-    _VALID_CHARS['_'] = true;
+    _ATTRIBUTE_ESCAPES[Chars.AMPERSAND] = "&amp;";
+    _ATTRIBUTE_ESCAPES[Chars.APOSTROPHE] = "&#39;";
+    _ATTRIBUTE_ESCAPES[Chars.GREATER_THAN] = "&gt;";
+    _ATTRIBUTE_ESCAPES[Chars.LESS_THAN] = "&lt;";
+    _ATTRIBUTE_ESCAPES[Chars.QUOTE] = "&quot;";
+
+    _ESCAPES[Chars.AMPERSAND] = "&amp;";
+    _ESCAPES[Chars.APOSTROPHE] = "&#39;";
+    _ESCAPES[Chars.GREATER_THAN] = "&gt;";
+    _ESCAPES[Chars.LESS_THAN] = "&lt;";
+    _ESCAPES[Chars.QUOTE] = "&#34;";
   }
 
   static class Chars {
@@ -1,6 +1,9 @@
 
 package com.springforge.common;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -21,6 +24,11 @@ public class Inflections {
   private List<Rule> singulars = new LinkedList<>();
   private List<Rule> plurals = new LinkedList<>();
 
+  private volatile int order;
+
+  private volatile RuleIndex singularIndex;
+  private volatile RuleIndex pluralIndex;
+
   private Inflections() {}
 
   /**
@@ -39,28 +47,29 @@ public class Inflections {
    * @return an instance of {@link Inflections}
    */
   public static Inflections getInstance(String language) {
-    Inflections instance = INSTANCES.get(language);
-    if (instance == null) {
-      instance = new Inflections();
-      INSTANCES.put(language, instance);
-    }
-    return instance;
+    return INSTANCES.computeIfAbsent(language, k -> new Inflections());
   }
 
   private String capitalize(String word) {
     return Character.toUpperCase(word.charAt(0)) + word.substring(1).toLowerCase();
   }
 
+  // changes whenever a rule is added
+  int getVersion() {
+    return order;
+  }
+
   /**
    * Add words to ignore for inflections.
    *
    * @param words the words to ignore.
    */
-  public void ignore(String... words) {
+  public synchronized void ignore(String... words) {
     if (words != null) {
       for (String word : words) {
         ignored.add(word.toLowerCase());
       }
+      order++;
     }
   }
 
@@ -70,11 +79,13 @@ public class Inflections {
    * @param singular the singular word
    * @param plural the plural word
    */
-  public void irregular(String singular, String plural) {
-    plurals.add(0, new Rule(singular.toLowerCase(), plural.toLowerCase(), true));
-    plurals.add(0, new Rule(capitalize(singular), capitalize(plural), true));
-    singulars.add(0, new Rule(plural.toLowerCase(), singular.toLowerCase(), true));
-    singulars.add(0, new Rule(capitalize(plural), capitalize(singular), true));
+  public synchronized void irregular(String singular, String plural) {
+    plurals.add(0, new Rule(singular.toLowerCase(), plural.toLowerCase(), true, ++order));
+    plurals.add(0, new Rule(capitalize(singular), capitalize(plural), true, ++order));
+    singulars.add(0, new Rule(plural.toLowerCase(), singular.toLowerCase(), true, ++order));
+    singulars.add(0, new Rule(capitalize(plural), capitalize(singular), true, ++order));
+    singularIndex = null;
+    pluralIndex = null;
   }
 
   /**
@@ -83,8 +94,9 @@ public class Inflections {
    * @param pattern the pattern to match plural
    * @param replacement the replacement text
    */
-  public void singular(String pattern, String replacement) {
-    singulars.add(0, new Rule(pattern, replacement, false));
+  public synchronized void singular(String pattern, String replacement) {
+    singulars.add(0, new Rule(pattern, replacement, false, ++order));
+    singularIndex = null;
   }
 
   /**
@@ -93,25 +105,23 @@ public class Inflections {
    * @param pattern the pattern to match singular
    * @param replacement the replacement text
    */
-  public void plural(String pattern, String replacement) {
-    plurals.add(0, new Rule(pattern, replacement, false));
+  public synchronized void plural(String pattern, String replacement) {
+    plurals.add(0, new Rule(pattern, replacement, false, ++order));
+    pluralIndex = null;
   }
 
   /**
-   * Apply the given list of inflection rules on the provided word.
+   * Apply the given compiled inflection rules on the provided word.
    *
    * @param word the word on which to apply the rules
    * @param rules the inflection rules
    * @return the inflected text
    */
-  protected String apply(String word, List<Rule> rules) {
-    if (word == null || "".equals(word.trim())) return word;
+  protected String apply(String word, RuleIndex rules) {
+    if (word == null || word.trim().isEmpty()) return word;
     if (ignored.contains(word.toLowerCase())) return word;
-    for (Rule rule : rules) {
-      String result = rule.apply(word);
-      if (result != null) return result;
-    }
-    return word;
+    final String result = rules.apply(word);
+    return result == null ? word : result;
   }
 
   /**
@@ -121,7 +131,16 @@ public class Inflections {
    * @return the converted text
    */
   public String singularize(String word) {
-    return apply(word, singulars);
+    RuleIndex index = singularIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = singularIndex;
+        if (index == null) {
+          index = singularIndex = new RuleIndex(singulars);
+        }
+      }
+    }
+    return apply(word, index);
   }
 
   /**
@@ -131,7 +150,16 @@ public class Inflections {
    * @return the converted text
    */
   public String pluralize(String word) {
-    return apply(word, plurals);
+    RuleIndex index = pluralIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = pluralIndex;
+        if (index == null) {
+          index = pluralIndex = new RuleIndex(plurals);
+        }
+      }
+    }
+    return apply(word, index);
   }
 
   static class Rule {
@@ -141,17 +169,19 @@ public class Inflections {
 
     private Pattern regex;
 
-    public Rule(String pattern, String replacement, boolean simple) {
+    // rules added last take precedence
+    private final int order;
+
+    public Rule(String pattern, String replacement, boolean simple, int order) {
       this.pattern = pattern;
       this.replacement = replacement;
+      this.order = order;
       if (!simple) {
         this.regex = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
       }
     }
 
     public String apply(String input) {
-      if (input == null) return null;
-      if (input.trim().equals("")) return null;
       if (regex == null) {
         return pattern.equals(input) ? replacement : null;
       }
@@ -177,4 +207,192 @@ public class Inflections {
       return false;
     }
   }
+
+  /**
+   * The {@link RuleIndex} is the compiled form of a list of rules.
+   *
+   * <p>The irregular words are kept in a hash map, and the patterns ending with {@code $} are kept
+   * in a trie of their literal suffixes, read backwards. A word only walks the trie along its last
+   * chars and is then tested against the few rules that may match it, in rule order.
+   */
+  static final class RuleIndex {
+
+    private final Map<String, Rule> irregulars = new HashMap<>();
+
+    private final Node root = new Node();
+
+    RuleIndex(List<Rule> rules) {
+      for (Rule rule : rules) {
+        if (rule.regex == null) {
+          irregulars.merge(rule.pattern, rule, (a, b) -> a.order > b.order ? a : b);
+          continue;
+        }
+        final Set<String> suffixes = suffixes(rule.pattern);
+        if (suffixes == null) {
+          root.own.add(rule);
+          continue;
+        }
+        for (String suffix : suffixes) {
+          Node node = root;
+          for (int i = suffix.length() - 1; i >= 0; i--) {
+            node = node.children.computeIfAbsent(suffix.charAt(i), c -> new Node());
+          }
+          node.own.add(rule);
+        }
+      }
+      root.compile(Collections.emptyList());
+    }
+
+    String apply(String word) {
+      Node node = root;
+      for (int i = word.length() - 1; i >= 0; i--) {
+        final Node next = node.children.get(Character.toLowerCase(word.charAt(i)));
+        if (next == null) {
+          break;
+        }
+        node = next;
+      }
+      final Rule irregular = irregulars.get(word);
+      for (Rule rule : node.rules) {
+        if (irregular != null && irregular.order > rule.order) {
+          return irregular.replacement;
+        }
+        final String result = rule.apply(word);
+        if (result != null) {
+          return result;
+        }
+      }
+      return irregular == null ? null : irregular.replacement;
+    }
+
+    /**
+     * Find the literal suffixes one of which ends every match of the given pattern.
+     *
+     * @param pattern the rule pattern
+     * @return the lower case suffixes, or null if any word may match
+     */
+    static Set<String> suffixes(String pattern) {
+      final Set<String> suffixes = new HashSet<>();
+      // every top level branch must be anchored at the end, like "foo$|bar$"
+      for (String branch : split(pattern)) {
+        if (!branch.endsWith("$") || branch.endsWith("\\$")) {
+          return null;
+        }
+        for (String suffix : suffixesOf(branch.substring(0, branch.length() - 1))) {
+          if (suffix.isEmpty()) {
+            return null;
+          }
+          suffixes.add(suffix.toLowerCase());
+        }
+      }
+      return suffixes;
+    }
+
+    private static Set<String> suffixesOf(String expr) {
+      final List<String> alternatives = split(expr);
+      if (alternatives.size() > 1) {
+        final Set<String> all = new HashSet<>();
+        for (String alternative : alternatives) {
+          all.addAll(suffixesOf(alternative));
+        }
+        return all;
+      }
+
+      final StringBuilder literal = new StringBuilder();
+      int i = expr.length() - 1;
+      while (i >= 0) {
+        final char c = expr.charAt(i);
+        if (Character.isLetterOrDigit(c) && (i == 0 || expr.charAt(i - 1) != '\\')) {
+          literal.insert(0, c);
+          i--;
+          continue;
+        }
+        final String tail = literal.toString();
+        final Set<String> result = new HashSet<>();
+        if (c == ')') {
+          final int open = matching(expr, i, '(', ')');
+          String group = open < 0 ? null : expr.substring(open + 1, i);
+          if (group != null && group.startsWith("?:")) {
+            group = group.substring(2);
+          }
+          if (group != null && !group.startsWith("?")) {
+            for (String suffix : suffixesOf(group)) {
+              result.add(suffix + tail);
+            }
+            return result;
+          }
+        } else if (c == ']') {
+          final int open = matching(expr, i, '[', ']');
+          final String chars = open < 0 ? "" : expr.substring(open + 1, i);
+          if (!chars.isEmpty() && chars.chars().allMatch(Character::isLetterOrDigit)) {
+            for (char ch : chars.toCharArray()) {
+              result.add(ch + tail);
+            }
+            return result;
+          }
+        }
+        result.add(tail);
+        return result;
+      }
+      return Collections.singleton(literal.toString());
+    }
+
+    // split on the top level alternation
+    private static List<String> split(String expr) {
+      final List<String> parts = new ArrayList<>();
+      int depth = 0;
+      int start = 0;
+      for (int i = 0; i < expr.length(); i++) {
+        final char c = expr.charAt(i);
+        if (c == '\\') {
+          i++;
+        } else if (c == '(' || c == '[') {
+          depth++;
+        } else if (c == ')' || c == ']') {
+          depth--;
+        } else if (c == '|' && depth == 0) {
+          parts.add(expr.substring(start, i));
+          start = i + 1;
+        }
+      }
+      parts.add(expr.substring(start));
+      return parts;
+    }
+
+    private static int matching(String expr, int close, char openChar, char closeChar) {
+      int depth = 0;
+      for (int i = close; i >= 0; i--) {
+        final char c = expr.charAt(i);
+        if (i > 0 && expr.charAt(i - 1) == '\\') {
+          continue;
+        }
+        if (c == closeChar) {
+          depth++;
+        } else if (c == openChar && --depth == 0) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+
+  private static final class Node {
+
+    private final Map<Character, Node> children = new HashMap<>();
+
+    private final List<Rule> own = new ArrayList<>();
+
+    // own rules and the ones of the parent nodes, in rule order
+    private List<Rule> rules;
+
+    private void compile(List<Rule> parentRules) {
+      final List<Rule> all = new ArrayList<>(parentRules);
+      all.addAll(own);
+      all.sort((a, b) -> Integer.compare(b.order, a.order));
+      rules = all;
+      for (Node child : children.values()) {
+        child.compile(all);
+      }
+    }
+  }
 }
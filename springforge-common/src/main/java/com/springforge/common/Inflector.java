@@ -3,8 +3,13 @@ package com.springforge.common;
 
 import com.google.common.base.CaseFormat;
 import com.google.common.base.Preconditions;
-import java.text.Normalizer;
-import java.text.Normalizer.Form;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
 
 /**
  * The {@link Inflector} provides various methods to transform words to plural, singular, titles,
@@ -15,14 +20,106 @@ public final class Inflector {
   private static final Inflections INFLECTIONS_EN = Inflections.getInstance();
   private static final Inflector INSTANCE = new Inflector();
 
+  private static final long DEFAULT_CACHE_SIZE = 1024;
+
+  private enum Operation {
+    PLURALIZE,
+    SINGULARIZE,
+    CAMELIZE,
+    LOWER_CAMELIZE,
+    UNDERSCORE,
+    HUMANIZE,
+    TABLEIZE,
+    CLASSIFY
+  }
+
+  // one cache per operation, null if caching is disabled
+  private volatile Map<Operation, Cache<String, Cached>> caches;
+
   private Inflector() {
     initEnglishRules();
+    setCacheSize(DEFAULT_CACHE_SIZE);
   }
 
   public static Inflector getInstance() {
     return INSTANCE;
   }
 
+  /**
+   * Set the maximum number of results kept per operation.
+   *
+   * <p>The results of {@link #pluralize(String)}, {@link #singularize(String)}, {@link
+   * #camelize(String, boolean)}, {@link #underscore(String)}, {@link #humanize(String)}, {@link
+   * #tableize(String)} and {@link #classify(String)} are cached, the least recently used ones are
+   * evicted first. The results cached before an inflection rule is added are not reused.
+   *
+   * @param maximumSize the cache size per operation, 1024 by default, 0 to disable caching
+   */
+  public void setCacheSize(long maximumSize) {
+    if (maximumSize <= 0) {
+      caches = null;
+      return;
+    }
+    final Map<Operation, Cache<String, Cached>> map = new EnumMap<>(Operation.class);
+    for (Operation operation : Operation.values()) {
+      map.put(
+          operation, CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build());
+    }
+    caches = map;
+  }
+
+  /** Clear the cached results. */
+  public void clearCache() {
+    final Map<Operation, Cache<String, Cached>> map = caches;
+    if (map != null) {
+      map.values().forEach(Cache::invalidateAll);
+    }
+  }
+
+  /**
+   * Get the hit and miss statistics of the caches.
+   *
+   * @return the statistics by operation name, empty if caching is disabled
+   */
+  public Map<String, CacheStats> getCacheStats() {
+    final Map<Operation, Cache<String, Cached>> map = caches;
+    final Map<String, CacheStats> stats = new LinkedHashMap<>();
+    if (map != null) {
+      map.forEach((operation, cache) -> stats.put(operation.name().toLowerCase(), cache.stats()));
+    }
+    return stats;
+  }
+
+  private String cached(Operation operation, String word, UnaryOperator<String> function) {
+    final Map<Operation, Cache<String, Cached>> map = caches;
+    if (map == null || word == null) {
+      return function.apply(word);
+    }
+
+    // results are tagged with the rules version read before computing them, so a result
+    // computed while a rule is added is never served for the new rules
+    final int version = INFLECTIONS_EN.getVersion();
+    final Cache<String, Cached> cache = map.get(operation);
+    final Cached cached = cache.getIfPresent(word);
+    if (cached != null && cached.version == version) {
+      return cached.value;
+    }
+    final String result = function.apply(word);
+    cache.put(word, new Cached(version, result));
+    return result;
+  }
+
+  private static final class Cached {
+
+    private final int version;
+    private final String value;
+
+    private Cached(int version, String value) {
+      this.version = version;
+      this.value = value;
+    }
+  }
+
   /**
    * Returns the plural form of the word in the given string.
    *
@@ -37,7 +134,7 @@ public final class Inflector {
    * @return pluralized string
    */
   public String pluralize(String word) {
-    return INFLECTIONS_EN.pluralize(word);
+    return cached(Operation.PLURALIZE, word, INFLECTIONS_EN::pluralize);
   }
 
   /**
@@ -54,7 +151,7 @@ public final class Inflector {
    * @return singularized string
    */
   public String singularize(String word) {
-    return INFLECTIONS_EN.singularize(word);
+    return cached(Operation.SINGULARIZE, word, INFLECTIONS_EN::singularize);
   }
 
   /**
@@ -71,8 +168,16 @@ public final class Inflector {
    * @return camel case string
    */
   public String camelize(String word, boolean lower) {
-    final CaseFormat target = lower ? CaseFormat.LOWER_CAMEL : CaseFormat.UPPER_CAMEL;
-    return CaseFormat.LOWER_UNDERSCORE.to(target, underscore(word));
+    if (lower) {
+      return cached(
+          Operation.LOWER_CAMELIZE,
+          word,
+          w -> CaseFormat.LOWER_UNDERSCORE.to(CaseFormat.LOWER_CAMEL, underscore(w)));
+    }
+    return cached(
+        Operation.CAMELIZE,
+        word,
+        w -> CaseFormat.LOWER_UNDERSCORE.to(CaseFormat.UPPER_CAMEL, underscore(w)));
   }
 
   /**
@@ -105,6 +210,10 @@ public final class Inflector {
    */
   public String underscore(String camelCase) {
     Preconditions.checkNotNull(camelCase);
+    return cached(Operation.UNDERSCORE, camelCase, Inflector::underscoreWord);
+  }
+
+  private static String underscoreWord(String camelCase) {
     return camelCase
         .trim()
         .replaceAll("([A-Z]+)([A-Z][a-z])", "$1_$2")
@@ -127,6 +236,10 @@ public final class Inflector {
    */
   public String humanize(String word) {
     Preconditions.checkNotNull(word);
+    return cached(Operation.HUMANIZE, word, this::humanizeWord);
+  }
+
+  private String humanizeWord(String word) {
     String result =
         underscore(word).replaceAll("_id$", "").replaceAll("\\A_+", "").replaceAll("[_\\s]+", " ");
     return capitalize(result);
@@ -159,7 +272,7 @@ public final class Inflector {
    * @return converted string
    */
   public String tableize(String camelCase) {
-    return pluralize(underscore(camelCase));
+    return cached(Operation.TABLEIZE, camelCase, w -> pluralize(underscore(w)));
   }
 
   /**
@@ -174,7 +287,7 @@ public final class Inflector {
    * @return converted string
    */
   public String classify(String text) {
-    return camelize(underscore(singularize(text)));
+    return cached(Operation.CLASSIFY, text, w -> camelize(underscore(singularize(w))));
   }
 
   /**
@@ -251,16 +364,16 @@ public final class Inflector {
   /**
    * Simplify the text to its unaccented version.
    *
-   * <p>It uses {@link Normalizer#normalize(CharSequence, java.text.Normalizer.Form)} with {@link
-   * Form#NFD} normalization and then replaces accented characters with their equivalent unaccented
-   * characters.
+   * <p>It uses {@link java.text.Normalizer#normalize(CharSequence, java.text.Normalizer.Form)} with
+   * {@link java.text.Normalizer.Form#NFD} normalization and then replaces accented characters with
+   * their equivalent unaccented characters.
    *
    * @param text the text to normalize
    * @return normalized text
    */
   public String simplify(String text) {
     Preconditions.checkNotNull(text);
-    return Normalizer.normalize(text, Form.NFD).replaceAll("\\p{InCombiningDiacriticalMarks}", "");
+    return StringUtils.stripMarks(text, false);
   }
 
   private void initEnglishRules() {
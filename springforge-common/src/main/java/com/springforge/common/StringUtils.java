@@ -6,12 +6,16 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.StringTokenizer;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /** This class provides static helper methods for {@link CharSequence}. */
 public final class StringUtils {
 
+  // the strip methods build into a per thread builder, large ones are not kept
+  private static final int MAX_BUILDER_CAPACITY = 8192;
+
+  private static final ThreadLocal<StringBuilder> BUILDERS =
+      ThreadLocal.withInitial(StringBuilder::new);
+
   /**
    * Check whether the given string value is empty. The value is empty if null or length is 0.
    *
@@ -43,7 +47,10 @@ public final class StringUtils {
     if (isEmpty(value)) {
       return true;
     }
-    for (int i = 0; i < value.length(); i++) {
+    // skip the ascii white spaces in bulk, check the other chars one by one
+    for (int i = TextScanner.indexOf(TextScanner.NON_SPACE, value, 0);
+        i >= 0;
+        i = TextScanner.indexOf(TextScanner.NON_SPACE, value, i + 1)) {
       if (!Character.isWhitespace(value.charAt(i))) {
         return false;
       }
@@ -72,13 +79,43 @@ public final class StringUtils {
     if (value == null) {
       return null;
     }
-    if (isEmpty(value)) {
+    return stripMarks(value, true);
+  }
+
+  /**
+   * Remove the combining diacritical marks from the {@link Normalizer.Form#NFD} form of the given
+   * text, in a single pass over the normalized text.
+   *
+   * @param value the text to strip
+   * @param strokes whether to replace the stroked L with L as well
+   * @return text with diacritics removed, or the same text if there is nothing to remove
+   */
+  static String stripMarks(CharSequence value, boolean strokes) {
+    // chars below U+00C0 have no canonical decomposition
+    int first = 0;
+    while (first < value.length() && value.charAt(first) < '\u00C0') {
+      first++;
+    }
+    if (first == value.length()) {
       return value.toString();
     }
-    return Normalizer.normalize(value, Normalizer.Form.NFD)
-        .replace('\u0141', 'L')
-        .replace('\u0142', 'l')
-        .replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+
+    final String normalized = Normalizer.normalize(value, Normalizer.Form.NFD);
+    final StringBuilder builder = builder();
+    for (int i = 0; i < normalized.length(); i++) {
+      final char c = normalized.charAt(i);
+      if (c >= '\u0300' && c <= '\u036F') {
+        continue;
+      }
+      if (strokes && c == '\u0141') {
+        builder.append('L');
+      } else if (strokes && c == '\u0142') {
+        builder.append('l');
+      } else {
+        builder.append(c);
+      }
+    }
+    return build(builder);
   }
 
   /**
@@ -98,37 +135,49 @@ public final class StringUtils {
       return text.toString();
     }
 
-    final String[] lines = text.toString().split("\\n");
-    final StringBuilder builder = new StringBuilder();
+    // trailing empty lines are dropped
+    int end = text.length();
+    while (end > 0 && text.charAt(end - 1) == '\n') {
+      end--;
+    }
 
-    int leading = -1;
-    for (String line : lines) {
-      if (isBlank(line)) {
-        continue;
-      }
-      int index = 0;
-      int length = line.length();
-      if (leading == -1) {
-        leading = length;
-      }
-      while (index < length && index < leading && Character.isWhitespace(line.charAt(index))) {
+    int leading = Integer.MAX_VALUE;
+    boolean multiline = false;
+    boolean blankLines = false;
+    for (int start = 0; start <= end; ) {
+      final int lineEnd = lineEnd(text, start, end);
+      int index = start;
+      while (index < lineEnd && Character.isWhitespace(text.charAt(index))) {
         index++;
       }
-      if (leading > index) {
-        leading = index;
+      if (index < lineEnd) {
+        leading = Math.min(leading, index - start);
+      } else if (lineEnd > start) {
+        blankLines = true;
       }
+      multiline |= lineEnd < end;
+      start = lineEnd + 1;
     }
 
-    for (String line : lines) {
-      if (!isBlank(line)) {
-        builder.append(leading <= line.length() ? line.substring(leading) : "");
+    // nothing to strip, and lines end with a single new line if more than one
+    if (leading == 0
+        && !blankLines
+        && (multiline ? end == text.length() - 1 : end == text.length())) {
+      return text.toString();
+    }
+
+    final StringBuilder builder = builder();
+    for (int start = 0; start <= end; ) {
+      final int lineEnd = lineEnd(text, start, end);
+      if (!isBlank(text, start, lineEnd)) {
+        builder.append(text, start + leading, lineEnd);
       }
-      if (lines.length > 1) {
-        builder.append("\n");
+      if (multiline) {
+        builder.append('\n');
       }
+      start = lineEnd + 1;
     }
-
-    return builder.toString();
+    return build(builder);
   }
 
   /**
@@ -141,9 +190,74 @@ public final class StringUtils {
     if (text == null) {
       return null;
     }
-    return Stream.of(text.toString().split("\n"))
-        .map(line -> line.replaceFirst("^\\s+\\|", ""))
-        .collect(Collectors.joining("\n"));
+
+    // trailing empty lines are dropped
+    int end = text.length();
+    while (end > 0 && text.charAt(end - 1) == '\n') {
+      end--;
+    }
+
+    StringBuilder builder = null;
+    for (int start = 0; start <= end; ) {
+      final int lineEnd = lineEnd(text, start, end);
+      int index = start;
+      while (index < lineEnd && isRegexSpace(text.charAt(index))) {
+        index++;
+      }
+      final boolean margin = index > start && index < lineEnd && text.charAt(index) == '|';
+      if (margin && builder == null) {
+        // first line to strip, copy the lines before as is
+        builder = builder().append(text, 0, start);
+      }
+      if (builder != null) {
+        builder.append(text, margin ? index + 1 : start, lineEnd);
+        if (lineEnd < end) {
+          builder.append('\n');
+        }
+      }
+      start = lineEnd + 1;
+    }
+
+    if (builder == null) {
+      return end == text.length() ? text.toString() : text.subSequence(0, end).toString();
+    }
+    return build(builder);
+  }
+
+  private static int lineEnd(CharSequence text, int start, int end) {
+    int index = start;
+    while (index < end && text.charAt(index) != '\n') {
+      index++;
+    }
+    return index;
+  }
+
+  private static boolean isBlank(CharSequence text, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (!Character.isWhitespace(text.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // the chars matched by \s in a regex
+  private static boolean isRegexSpace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  private static StringBuilder builder() {
+    final StringBuilder builder = BUILDERS.get();
+    builder.setLength(0);
+    return builder;
+  }
+
+  private static String build(StringBuilder builder) {
+    final String result = builder.toString();
+    if (builder.capacity() > MAX_BUILDER_CAPACITY) {
+      BUILDERS.remove();
+    }
+    return result;
   }
 
   /**
@@ -156,16 +270,7 @@ public final class StringUtils {
     if (text == null) {
       return false;
     }
-
-    boolean ascii = true;
-
-    for (int i = 0; i < text.length(); i++) {
-      if (!isAscii(text.charAt(i))) {
-        ascii = false;
-        break;
-      }
-    }
-    return ascii;
+    return TextScanner.indexOf(TextScanner.NON_ASCII, text, 0) < 0;
   }
 
   /**
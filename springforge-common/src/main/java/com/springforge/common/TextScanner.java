@@ -0,0 +1,134 @@
+package com.springforge.common;
+
+/**
+ * The {@link TextScanner} finds the first char of a text matching one of a few fixed kinds of
+ * scans, used by the {@link StringUtils} and {@link HtmlUtils} checks run on every rendered value.
+ *
+ * <p>Long strings are scanned in chunks with the incubating Vector API when the application is
+ * started with {@code --add-modules jdk.incubator.vector}. Otherwise, and for short text where
+ * copying into lanes costs more than it saves, the chars are scanned one by one.
+ */
+final class TextScanner {
+
+  /** Scan for a char out of the printable ASCII range. */
+  static final int NON_ASCII = 0;
+
+  /** Scan for a char that is not an ASCII white space, as per {@link Character#isWhitespace}. */
+  static final int NON_SPACE = 1;
+
+  /** Scan for a char that {@link HtmlUtils#escape(String)} may replace. */
+  static final int HTML_ESCAPE = 2;
+
+  // text shorter than a chunk is scanned char by char
+  static final int CHUNK_SIZE = 128;
+
+  private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+  // compiled separately, against the incubating module
+  private static final String VECTOR_SCANNER = "com.springforge.common.VectorTextScanner";
+
+  private static final ChunkScanner VECTOR = detect();
+
+  private static final ThreadLocal<char[]> CHUNKS =
+      ThreadLocal.withInitial(() -> new char[CHUNK_SIZE]);
+
+  private TextScanner() {}
+
+  /** The scan of fixed size chunks with the Vector API. */
+  interface ChunkScanner {
+
+    /**
+     * Check whether the platform has lanes wide enough to beat the scalar scan.
+     *
+     * @return true if supported
+     */
+    boolean isSupported();
+
+    /**
+     * Find the first char of the chunk matched by the given kind of scan.
+     *
+     * @param kind one of the scan kinds
+     * @param chars the chunk of chars
+     * @param length the number of chars in the chunk
+     * @return the index of the matched char or -1
+     */
+    int indexOf(int kind, char[] chars, int length);
+  }
+
+  private static ChunkScanner detect() {
+    if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+      return null;
+    }
+    try {
+      final ChunkScanner scanner =
+          (ChunkScanner) Class.forName(VECTOR_SCANNER).getDeclaredConstructor().newInstance();
+      return scanner.isSupported() ? scanner : null;
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return null;
+    }
+  }
+
+  /**
+   * Check whether the scans are vectorized.
+   *
+   * @return true if the Vector API is used
+   */
+  static boolean isVectorized() {
+    return VECTOR != null;
+  }
+
+  /**
+   * Find the first char of the text, starting at the given index, matched by the given kind of
+   * scan.
+   *
+   * @param kind the kind of scan
+   * @param text the text to scan
+   * @param from the index to start from
+   * @return the index of the matched char or -1
+   */
+  static int indexOf(int kind, CharSequence text, int from) {
+    final int length = text.length();
+    int i = from;
+    if (VECTOR != null && length - i >= CHUNK_SIZE && text instanceof String) {
+      final String string = (String) text;
+      final char[] chunk = CHUNKS.get();
+      for (; length - i >= CHUNK_SIZE; i += CHUNK_SIZE) {
+        string.getChars(i, i + CHUNK_SIZE, chunk, 0);
+        final int index = VECTOR.indexOf(kind, chunk, CHUNK_SIZE);
+        if (index >= 0) {
+          return i + index;
+        }
+      }
+    }
+    return scan(kind, text, i);
+  }
+
+  // the scalar scan
+  static int scan(int kind, CharSequence text, int from) {
+    for (int i = from; i < text.length(); i++) {
+      if (matches(kind, text.charAt(i))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  static boolean matches(int kind, char c) {
+    switch (kind) {
+      case NON_ASCII:
+        return c < 32 || c > 126;
+      case NON_SPACE:
+        return !(c == ' ' || (c >= '\t' && c <= '\r') || (c >= '\u001c' && c <= '\u001f'));
+      default:
+        return c < 32
+            || c == '\u007f'
+            || c == '<'
+            || c == '>'
+            || c == '&'
+            || c == '"'
+            || c == '\''
+            || (c >= '\u2013' && c <= '\u2028')
+            || c >= '\ufdd0';
+    }
+  }
+}
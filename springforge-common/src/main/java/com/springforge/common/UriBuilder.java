@@ -3,13 +3,12 @@ package com.springforge.common;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /** Build and manipulate URLs */
 public class UriBuilder {
@@ -22,35 +21,12 @@ public class UriBuilder {
   private final Map<String, String> queryParams = new LinkedHashMap<>();
   private String fragment;
 
-  private static final String SCHEME_PATTERN = "([^:/?#]+):";
-  private static final String USERINFO_PATTERN = "([^@\\[/?#]*)";
-  private static final String HOST_PATTERN = "([^\\[/?#:]*)";
-  private static final String PORT_PATTERN = "([^/?#]*)";
-  private static final String PATH_PATTERN = "([^?#]*)";
-  private static final String QUERY_PATTERN = "([^#]*)";
-  private static final String FRAGMENT_PATTERN = "(.*)";
-  private static final Pattern URI_PATTERN =
-      Pattern.compile(
-          "^("
-              + SCHEME_PATTERN
-              + ")?"
-              + "(//("
-              + USERINFO_PATTERN
-              + "@)?"
-              + HOST_PATTERN
-              + "(:"
-              + PORT_PATTERN
-              + ")?"
-              + ")?"
-              + PATH_PATTERN
-              + "(\\?"
-              + QUERY_PATTERN
-              + ")?"
-              + "(#"
-              + FRAGMENT_PATTERN
-              + ")?");
-
-  private static final Pattern QUERY_PARAM_PATTERN = Pattern.compile("([^&=]+)(=?)([^&]+)?");
+  // the ascii chars kept as is in each component, as per java.net.URI
+  private static final boolean[] USERINFO_CHARS = allowedChars(";:&=+$,");
+  private static final boolean[] PATH_CHARS = allowedChars(";/:@&=+$,");
+  private static final boolean[] URIC_CHARS = allowedChars(";/?:@&=+$,[]");
+
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
 
   private UriBuilder() {}
 
@@ -130,19 +106,52 @@ public class UriBuilder {
    * @return the uri builder
    */
   public static UriBuilder from(String uri) {
-    Matcher matcher = URI_PATTERN.matcher(uri);
-    if (!matcher.matches()) {
+    // no other part may contain a '#', so the fragment starts at the first one
+    final int hash = uri.indexOf('#');
+    final int end = hash < 0 ? uri.length() : hash;
+    if (hash >= 0 && hasLineTerminator(uri, hash + 1)) {
       throw new IllegalArgumentException("Not a valid url : " + uri);
     }
 
+    String scheme = null;
+    String userInfo = null;
+    String host = null;
+    String port = null;
+    String query = null;
+    String fragment = hash < 0 ? null : uri.substring(hash + 1);
+
+    int index = indexOf(uri, 0, end, ":/?");
+    if (index > 0 && index < end && uri.charAt(index) == ':') {
+      scheme = uri.substring(0, index);
+      index++;
+    } else {
+      index = 0;
+    }
+
+    if (index + 1 < end && uri.startsWith("//", index)) {
+      index += 2;
+      int next = indexOf(uri, index, end, "@[/?");
+      if (next < end && uri.charAt(next) == '@') {
+        userInfo = uri.substring(index, next);
+        index = next + 1;
+      }
+      next = indexOf(uri, index, end, "[/?:");
+      host = uri.substring(index, next);
+      index = next;
+      if (index < end && uri.charAt(index) == ':') {
+        next = indexOf(uri, index + 1, end, "/?");
+        port = uri.substring(index + 1, next);
+        index = next;
+      }
+    }
+
+    final int mark = indexOf(uri, index, end, "?");
+    final String path = uri.substring(index, mark);
+    if (mark < end) {
+      query = uri.substring(mark + 1, end);
+    }
+
     UriBuilder builder = new UriBuilder();
-    String scheme = matcher.group(2);
-    String userInfo = matcher.group(5);
-    String host = matcher.group(6);
-    String port = matcher.group(8);
-    String path = matcher.group(9);
-    String query = matcher.group(11);
-    String fragment = matcher.group(13);
 
     builder.setScheme(scheme);
     builder.setUserInfo(userInfo);
@@ -155,6 +164,27 @@ public class UriBuilder {
     return builder;
   }
 
+  // the index of the first of the given chars in the given range, or the range end
+  private static int indexOf(String text, int start, int end, String chars) {
+    for (int i = start; i < end; i++) {
+      if (chars.indexOf(text.charAt(i)) >= 0) {
+        return i;
+      }
+    }
+    return end;
+  }
+
+  // the line terminators not matched by a regex '.'
+  private static boolean hasLineTerminator(String text, int start) {
+    for (int i = start; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Set the fragment
    *
@@ -179,12 +209,24 @@ public class UriBuilder {
    */
   public UriBuilder addQueryParams(String query) {
     if (StringUtils.notBlank(query)) {
-      Matcher matcher = QUERY_PARAM_PATTERN.matcher(query);
-      while (matcher.find()) {
-        String name = matcher.group(1);
-        String eq = matcher.group(2);
-        String value = matcher.group(3);
-        addQueryParam(name, (value != null ? value : (StringUtils.notBlank(eq) ? "" : null)));
+      final int length = query.length();
+      int index = 0;
+      while (index < length) {
+        // names can't be empty, skip the separators
+        if (query.charAt(index) == '&' || query.charAt(index) == '=') {
+          index++;
+          continue;
+        }
+        int next = indexOf(query, index, length, "&=");
+        final String name = query.substring(index, next);
+        String value = null;
+        if (next < length && query.charAt(next) == '=') {
+          index = next + 1;
+          next = indexOf(query, index, length, "&");
+          value = query.substring(index, next);
+        }
+        addQueryParam(name, value);
+        index = next;
       }
     } else {
       this.queryParams.clear();
@@ -310,6 +352,99 @@ public class UriBuilder {
     }
   }
 
+  /**
+   * Create the uri string from this instance.
+   *
+   * <p>The components are encoded the same way as {@link #toUri()} does, but the result is not
+   * validated, so it's faster to use when the components are known to be valid.
+   *
+   * @return the uri string
+   */
+  public String toUriString() {
+    final StringBuilder builder = new StringBuilder(64);
+    if (this.scheme != null) {
+      builder.append(this.scheme).append(':');
+    }
+    if (this.host != null) {
+      builder.append("//");
+      if (this.userInfo != null) {
+        appendEncoded(builder, this.userInfo, USERINFO_CHARS);
+        builder.append('@');
+      }
+      boolean brackets =
+          this.host.indexOf(':') >= 0 && !this.host.startsWith("[") && !this.host.endsWith("]");
+      if (brackets) {
+        builder.append('[').append(this.host).append(']');
+      } else {
+        builder.append(this.host);
+      }
+      int port = getPort();
+      if (port != -1) {
+        builder.append(':').append(port);
+      }
+    }
+    appendEncoded(builder, pathBuilder.getPath(), PATH_CHARS);
+    if (ObjectUtils.notEmpty(this.queryParams)) {
+      builder.append('?');
+      final int start = builder.length();
+      this.queryParams.forEach(
+          (name, value) -> {
+            if (builder.length() != start) {
+              builder.append('&');
+            }
+            appendEncoded(builder, name, URIC_CHARS);
+            if (value != null) {
+              builder.append('=');
+              appendEncoded(builder, value, URIC_CHARS);
+            }
+          });
+    }
+    if (this.fragment != null) {
+      builder.append('#');
+      appendEncoded(builder, this.fragment, URIC_CHARS);
+    }
+    return builder.toString();
+  }
+
+  private static boolean[] allowedChars(String punct) {
+    final boolean[] allowed = new boolean[128];
+    for (char c = '0'; c <= '9'; c++) {
+      allowed[c] = true;
+    }
+    for (char c = 'a'; c <= 'z'; c++) {
+      allowed[c] = true;
+      allowed[Character.toUpperCase(c)] = true;
+    }
+    for (char c : ("-_.!~*'()" + punct).toCharArray()) {
+      allowed[c] = true;
+    }
+    return allowed;
+  }
+
+  // quote the chars like java.net.URI, '%' included
+  private static void appendEncoded(StringBuilder builder, String text, boolean[] allowed) {
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      if (c < 128) {
+        if (allowed[c]) {
+          builder.append(c);
+        } else {
+          appendEscape(builder, (byte) c);
+        }
+      } else if (Character.isSpaceChar(c) || Character.isISOControl(c)) {
+        for (byte b : String.valueOf(c).getBytes(StandardCharsets.UTF_8)) {
+          appendEscape(builder, b);
+        }
+      } else {
+        builder.append(c);
+      }
+    }
+  }
+
+  private static void appendEscape(StringBuilder builder, byte b) {
+    builder.append('%').append(HEX_DIGITS[(b >> 4) & 0x0f]).append(HEX_DIGITS[b & 0x0f]);
+  }
+
   private int getPort() {
     if (StringUtils.isBlank(this.port)) {
       return -1;
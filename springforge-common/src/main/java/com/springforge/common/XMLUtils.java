@@ -2,22 +2,36 @@
 package com.springforge.common;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
@@ -27,6 +41,8 @@ import javax.xml.transform.TransformerFactoryConfigurationError;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 import javax.xml.xpath.XPathFactoryConfigurationException;
 import org.slf4j.Logger;
@@ -39,6 +55,7 @@ import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXNotRecognizedException;
 import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.helpers.DefaultHandler;
 
 /** The {@link XMLUtils} provides various methods to deal with XML parsing. */
 public class XMLUtils {
@@ -47,6 +64,46 @@ public class XMLUtils {
 
   private static final String PROPERTY_UNSUPPORTED = "Property {} is not supported.";
 
+  // the parsers of the current thread, taken while in use so nested parsing creates new ones
+  private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDERS = new ThreadLocal<>();
+
+  private static final ThreadLocal<SAXParser> SAX_PARSERS = new ThreadLocal<>();
+
+  // the compiled expressions are not thread safe, so each thread compiles its own
+  private static final int MAX_XPATH_EXPRESSIONS = 256;
+
+  private static final ThreadLocal<Map<XPathKey, XPathExpression>> XPATH_EXPRESSIONS =
+      ThreadLocal.withInitial(
+          () ->
+              new LinkedHashMap<XPathKey, XPathExpression>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<XPathKey, XPathExpression> eldest) {
+                  return size() > MAX_XPATH_EXPRESSIONS;
+                }
+              });
+
+  /**
+   * The hardened factories, created once and only used to create parsers, builders and
+   * transformers. The factories are not thread safe, so they are used under their own lock.
+   */
+  private static final class Factories {
+
+    static final DocumentBuilderFactory DOCUMENT_BUILDER = createDocumentBuilderFactory(false);
+
+    static final DocumentBuilderFactory NAMESPACE_AWARE_DOCUMENT_BUILDER =
+        createDocumentBuilderFactory(true);
+
+    static final SAXParserFactory SAX_PARSER = createSAXParserFactory(false);
+
+    static final XMLInputFactory XML_INPUT = createXMLInputFactory(true);
+
+    static final XPathFactory XPATH = createXPathFactory();
+
+    static final TransformerFactory TRANSFORMER = createTransformerFactory();
+
+    private Factories() {}
+  }
+
   // DocumentBuilder block
 
   /**
@@ -87,7 +144,14 @@ public class XMLUtils {
    * @return configured {@link DocumentBuilder}
    */
   public static DocumentBuilder createDocumentBuilder() throws ParserConfigurationException {
-    return createDocumentBuilderFactory(false).newDocumentBuilder();
+    return newDocumentBuilder(Factories.DOCUMENT_BUILDER);
+  }
+
+  private static DocumentBuilder newDocumentBuilder(DocumentBuilderFactory factory)
+      throws ParserConfigurationException {
+    synchronized (factory) {
+      return factory.newDocumentBuilder();
+    }
   }
 
   // SAXParser block
@@ -120,8 +184,15 @@ public class XMLUtils {
    * @return configured {@link SAXParser}
    */
   public static SAXParser createSAXParser() throws ParserConfigurationException, SAXException {
-    SAXParser parser = createSAXParserFactory(false).newSAXParser();
+    final SAXParser parser;
+    synchronized (Factories.SAX_PARSER) {
+      parser = Factories.SAX_PARSER.newSAXParser();
+    }
+    return harden(parser);
+  }
 
+  // the properties are set on the parser, so they must be set again after a reset
+  static SAXParser harden(SAXParser parser) {
     try {
       parser.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
     } catch (SAXNotRecognizedException | SAXNotSupportedException e) {
@@ -137,6 +208,36 @@ public class XMLUtils {
     return parser;
   }
 
+  // StAX block
+
+  /**
+   * Returns properly configured {@link XMLInputFactory} with no DTD support and no external entity,
+   * DTD and schema access.
+   *
+   * @param namespaceAware whether the returned factory is to provide support for XML namespaces
+   * @return configured {@link XMLInputFactory}
+   */
+  public static XMLInputFactory createXMLInputFactory(Boolean namespaceAware) {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, namespaceAware);
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+    try {
+      factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+    } catch (IllegalArgumentException ignore) {
+      LOG.trace(PROPERTY_UNSUPPORTED, XMLConstants.ACCESS_EXTERNAL_DTD);
+    }
+
+    try {
+      factory.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+    } catch (IllegalArgumentException ignore) {
+      LOG.trace(PROPERTY_UNSUPPORTED, XMLConstants.ACCESS_EXTERNAL_SCHEMA);
+    }
+
+    return factory;
+  }
+
   // XPath block
 
   /**
@@ -162,7 +263,80 @@ public class XMLUtils {
    * @return configured {@link XPath}
    */
   public static XPath createXPath() {
-    return createXPathFactory().newXPath();
+    synchronized (Factories.XPATH) {
+      return Factories.XPATH.newXPath();
+    }
+  }
+
+  /**
+   * Returns the compiled {@link XPathExpression} of the given expression.
+   *
+   * <p>The compiled expressions are cached per thread, as they are not thread safe. The returned
+   * expression must not be shared with other threads. The cache is keyed on the expression and
+   * the namespace bindings, so equal bindings given as different maps share the same entry.
+   *
+   * @param expression the XPath expression
+   * @param namespaces the namespace URIs by prefix used to resolve prefixes, may be null
+   * @return the compiled expression
+   * @throws XPathExpressionException if the expression can't be compiled
+   */
+  public static XPathExpression compile(String expression, Map<String, String> namespaces)
+      throws XPathExpressionException {
+    final Map<XPathKey, XPathExpression> expressions = XPATH_EXPRESSIONS.get();
+    final XPathKey key =
+        new XPathKey(expression, namespaces == null ? Map.of() : Map.copyOf(namespaces));
+    XPathExpression compiled = expressions.get(key);
+    if (compiled == null) {
+      final XPath xpath = createXPath();
+      if (!key.namespaces.isEmpty()) {
+        xpath.setNamespaceContext(new Namespaces(key.namespaces));
+      }
+      compiled = xpath.compile(expression);
+      expressions.put(key, compiled);
+    }
+    return compiled;
+  }
+
+  /**
+   * Evaluate the given expression on the given node, using a compiled expression cached per thread.
+   *
+   * @param node the node to evaluate the expression on
+   * @param expression the XPath expression
+   * @param namespaces the namespace URIs by prefix used to resolve prefixes, may be null
+   * @param returnType the result type, one of the {@link javax.xml.xpath.XPathConstants}
+   * @return the result of the evaluation
+   * @throws XPathExpressionException if the expression can't be compiled or evaluated
+   * @see #compile(String, Map)
+   */
+  public static Object evaluate(
+      Node node, String expression, Map<String, String> namespaces, QName returnType)
+      throws XPathExpressionException {
+    return compile(expression, namespaces).evaluate(node, returnType);
+  }
+
+  /**
+   * Evaluate each of the given expressions on the given node, using compiled expressions cached
+   * per thread.
+   *
+   * @param node the node to evaluate the expressions on
+   * @param expressions the XPath expressions
+   * @param namespaces the namespace URIs by prefix used to resolve prefixes, may be null
+   * @param returnType the result type, one of the {@link javax.xml.xpath.XPathConstants}
+   * @return the results, one per expression in the order of the given expressions
+   * @throws XPathExpressionException if an expression can't be compiled or evaluated
+   * @see #compile(String, Map)
+   */
+  public static List<Object> evaluate(
+      Node node,
+      Collection<String> expressions,
+      Map<String, String> namespaces,
+      QName returnType)
+      throws XPathExpressionException {
+    final List<Object> results = new ArrayList<>(expressions.size());
+    for (String expression : expressions) {
+      results.add(evaluate(node, expression, namespaces, returnType));
+    }
+    return results;
   }
 
   // Transformer block
@@ -194,7 +368,18 @@ public class XMLUtils {
 
   private static Document parse(ParserFunction parser)
       throws ParserConfigurationException, SAXException, IOException {
-    return parser.apply(createDocumentBuilderFactory(true).newDocumentBuilder());
+    DocumentBuilder builder = DOCUMENT_BUILDERS.get();
+    if (builder == null) {
+      builder = newDocumentBuilder(Factories.NAMESPACE_AWARE_DOCUMENT_BUILDER);
+    } else {
+      DOCUMENT_BUILDERS.remove();
+    }
+    try {
+      return parser.apply(builder);
+    } finally {
+      builder.reset();
+      DOCUMENT_BUILDERS.set(builder);
+    }
   }
 
   /**
@@ -271,6 +456,73 @@ public class XMLUtils {
     return parse(builder -> builder.parse(uri.toString()));
   }
 
+  private static void saxParse(SAXParserFunction function)
+      throws ParserConfigurationException, SAXException, IOException {
+    SAXParser parser = SAX_PARSERS.get();
+    if (parser == null) {
+      parser = createSAXParser();
+    } else {
+      SAX_PARSERS.remove();
+    }
+    try {
+      function.apply(parser);
+    } finally {
+      parser.reset();
+      SAX_PARSERS.set(harden(parser));
+    }
+  }
+
+  /**
+   * Parse the content of the given file with the given SAX handler.
+   *
+   * <p>The parser is reused by the subsequent calls from the same thread.
+   *
+   * @param file the file to parse
+   * @param handler the SAX handler to use
+   * @throws ParserConfigurationException
+   * @throws SAXException
+   * @throws IOException
+   * @see SAXParser#parse(File, DefaultHandler)
+   */
+  public static void parse(File file, DefaultHandler handler)
+      throws ParserConfigurationException, SAXException, IOException {
+    saxParse(parser -> parser.parse(file, handler));
+  }
+
+  /**
+   * Parse the content of the given {@link InputStream} with the given SAX handler.
+   *
+   * <p>The parser is reused by the subsequent calls from the same thread.
+   *
+   * @param is the InputStream to parse
+   * @param handler the SAX handler to use
+   * @throws ParserConfigurationException
+   * @throws SAXException
+   * @throws IOException
+   * @see SAXParser#parse(InputStream, DefaultHandler)
+   */
+  public static void parse(InputStream is, DefaultHandler handler)
+      throws ParserConfigurationException, SAXException, IOException {
+    saxParse(parser -> parser.parse(is, handler));
+  }
+
+  /**
+   * Parse the content of the given {@link InputSource} with the given SAX handler.
+   *
+   * <p>The parser is reused by the subsequent calls from the same thread.
+   *
+   * @param is the InputSource to parse
+   * @param handler the SAX handler to use
+   * @throws ParserConfigurationException
+   * @throws SAXException
+   * @throws IOException
+   * @see SAXParser#parse(InputSource, DefaultHandler)
+   */
+  public static void parse(InputSource is, DefaultHandler handler)
+      throws ParserConfigurationException, SAXException, IOException {
+    saxParse(parser -> parser.parse(is, handler));
+  }
+
   /**
    * Transform the given node to xml content.
    *
@@ -283,7 +535,9 @@ public class XMLUtils {
       throws TransformerException {
     final Transformer transformer;
     try {
-      transformer = createTransformerFactory().newTransformer();
+      synchronized (Factories.TRANSFORMER) {
+        transformer = Factories.TRANSFORMER.newTransformer();
+      }
     } catch (TransformerConfigurationException | TransformerFactoryConfigurationError e) {
       throw new RuntimeException(e);
     }
@@ -342,11 +596,265 @@ public class XMLUtils {
     return element.getLocalName().equals(tagName);
   }
 
+  /**
+   * Create a {@link Stream} of the elements with the given tag name, read from the given file.
+   *
+   * <p>The file is read as the stream is consumed and only the matching element being returned is
+   * kept in memory, so the stream must be closed. See {@link #stream(InputStream, String)}.
+   *
+   * @param file the file to read
+   * @param tagName the tag name of the elements, use <code>"*"</code> for any elements
+   * @return stream of the matching elements
+   * @throws IOException if the file can't be opened
+   * @throws XMLStreamException if the file can't be read
+   */
+  public static Stream<Element> stream(File file, String tagName)
+      throws IOException, XMLStreamException {
+    final InputStream is = new FileInputStream(file);
+    try {
+      return stream(is, tagName).onClose(() -> close(is));
+    } catch (XMLStreamException | RuntimeException e) {
+      is.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Create a {@link Stream} of the elements with the given tag name, read from the given {@link
+   * InputStream}.
+   *
+   * <p>Unlike {@link #stream(Node, String)}, no document is built: the input is pulled as the
+   * stream is consumed, and each matching element is built with its children only. Elements are
+   * matched at any depth, but not inside an element already matched. Each element belongs to its
+   * own document, so the processed ones can be garbage collected.
+   *
+   * <p>The stream must be closed to release the parser, it doesn't close the given input. The
+   * parsing errors are thrown as {@link RuntimeException} by the stream operations.
+   *
+   * @param is the InputStream to read
+   * @param tagName the tag name of the elements, use <code>"*"</code> for any elements
+   * @return stream of the matching elements
+   * @throws XMLStreamException if the input can't be read
+   */
+  public static Stream<Element> stream(InputStream is, String tagName) throws XMLStreamException {
+    final XMLStreamReader reader;
+    synchronized (Factories.XML_INPUT) {
+      reader = Factories.XML_INPUT.createXMLStreamReader(is);
+    }
+    final ElementIterator iterator = new ElementIterator(reader, tagName);
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(iterator::close);
+  }
+
+  private static void close(InputStream is) {
+    try {
+      is.close();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static boolean matchTagName(String prefix, String localName, String tagName) {
+    if (StringUtils.isBlank(tagName)) return false;
+    if ("*".equals(tagName)) return true;
+    if (tagName.contains(":")) return tagName.equals(prefix + ":" + localName);
+    return localName.equals(tagName);
+  }
+
   @FunctionalInterface
   private static interface ParserFunction {
     Document apply(DocumentBuilder builder) throws SAXException, IOException;
   }
 
+  @FunctionalInterface
+  private static interface SAXParserFunction {
+    void apply(SAXParser parser) throws SAXException, IOException;
+  }
+
+  private static final class ElementIterator implements Iterator<Element> {
+
+    private final XMLStreamReader reader;
+    private final String tagName;
+    private final DocumentBuilder builder;
+    private Element next;
+
+    private ElementIterator(XMLStreamReader reader, String tagName) {
+      this.reader = reader;
+      this.tagName = tagName;
+      try {
+        this.builder = newDocumentBuilder(Factories.NAMESPACE_AWARE_DOCUMENT_BUILDER);
+      } catch (ParserConfigurationException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == null) {
+        try {
+          next = read();
+        } catch (XMLStreamException e) {
+          throw new RuntimeException(e);
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public Element next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final Element element = next;
+      next = null;
+      return element;
+    }
+
+    private Element read() throws XMLStreamException {
+      while (reader.hasNext()) {
+        if (reader.next() == XMLStreamConstants.START_ELEMENT
+            && matchTagName(reader.getPrefix(), reader.getLocalName(), tagName)) {
+          final Document document = builder.newDocument();
+          final Element element = readElement(document);
+          document.appendChild(element);
+          return element;
+        }
+      }
+      return null;
+    }
+
+    // read the current element and its children, up to its end tag
+    private Element readElement(Document document) throws XMLStreamException {
+      final Element element = createElement(document);
+      Node parent = element;
+      while (parent != null) {
+        switch (reader.next()) {
+          case XMLStreamConstants.START_ELEMENT:
+            parent = parent.appendChild(createElement(document));
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            parent = parent == element ? null : parent.getParentNode();
+            break;
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.SPACE:
+            parent.appendChild(document.createTextNode(reader.getText()));
+            break;
+          case XMLStreamConstants.CDATA:
+            parent.appendChild(document.createCDATASection(reader.getText()));
+            break;
+          case XMLStreamConstants.COMMENT:
+            parent.appendChild(document.createComment(reader.getText()));
+            break;
+          case XMLStreamConstants.PROCESSING_INSTRUCTION:
+            parent.appendChild(
+                document.createProcessingInstruction(reader.getPITarget(), reader.getPIData()));
+            break;
+          default:
+            break;
+        }
+      }
+      return element;
+    }
+
+    private Element createElement(Document document) {
+      final Element element =
+          document.createElementNS(
+              emptyToNull(reader.getNamespaceURI()),
+              qualify(reader.getPrefix(), reader.getLocalName()));
+      for (int i = 0; i < reader.getNamespaceCount(); i++) {
+        final String prefix = reader.getNamespacePrefix(i);
+        element.setAttributeNS(
+            XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+            StringUtils.isEmpty(prefix)
+                ? XMLConstants.XMLNS_ATTRIBUTE
+                : qualify(XMLConstants.XMLNS_ATTRIBUTE, prefix),
+            reader.getNamespaceURI(i));
+      }
+      for (int i = 0; i < reader.getAttributeCount(); i++) {
+        element.setAttributeNS(
+            emptyToNull(reader.getAttributeNamespace(i)),
+            qualify(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+            reader.getAttributeValue(i));
+      }
+      return element;
+    }
+
+    private static String emptyToNull(String namespace) {
+      return StringUtils.isEmpty(namespace) ? null : namespace;
+    }
+
+    private static String qualify(String prefix, String localName) {
+      return StringUtils.isEmpty(prefix) ? localName : prefix + ":" + localName;
+    }
+
+    private void close() {
+      try {
+        reader.close();
+      } catch (XMLStreamException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  private static final class XPathKey {
+
+    private final String expression;
+    private final Map<String, String> namespaces;
+
+    private XPathKey(String expression, Map<String, String> namespaces) {
+      this.expression = Objects.requireNonNull(expression);
+      this.namespaces = namespaces;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof XPathKey)) return false;
+      final XPathKey other = (XPathKey) obj;
+      return expression.equals(other.expression) && namespaces.equals(other.namespaces);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(expression, namespaces);
+    }
+  }
+
+  private static final class Namespaces implements NamespaceContext {
+
+    private final Map<String, String> uris;
+
+    private Namespaces(Map<String, String> uris) {
+      this.uris = uris;
+    }
+
+    @Override
+    public String getNamespaceURI(String prefix) {
+      Objects.requireNonNull(prefix);
+      if (XMLConstants.XML_NS_PREFIX.equals(prefix)) return XMLConstants.XML_NS_URI;
+      if (XMLConstants.XMLNS_ATTRIBUTE.equals(prefix)) return XMLConstants.XMLNS_ATTRIBUTE_NS_URI;
+      return uris.getOrDefault(prefix, XMLConstants.NULL_NS_URI);
+    }
+
+    @Override
+    public String getPrefix(String namespaceURI) {
+      final Iterator<String> prefixes = getPrefixes(namespaceURI);
+      return prefixes.hasNext() ? prefixes.next() : null;
+    }
+
+    @Override
+    public Iterator<String> getPrefixes(String namespaceURI) {
+      Objects.requireNonNull(namespaceURI);
+      return uris.entrySet().stream()
+          .filter(e -> e.getValue().equals(namespaceURI))
+          .map(Map.Entry::getKey)
+          .iterator();
+    }
+  }
+
   private static final class NodeIterator implements Iterator<Node> {
 
     private final NodeList nodes;
@@ -2,18 +2,34 @@
 package com.springforge.common.crypto;
 
 import com.google.common.base.MoreObjects;
-import com.google.common.primitives.Bytes;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.security.SecureRandom;
 import java.security.spec.AlgorithmParameterSpec;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.PBEKeySpec;
-import javax.crypto.spec.SecretKeySpec;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 
 public class BytesEncryptor implements Encryptor<byte[], byte[]> {
 
@@ -26,6 +42,9 @@ public class BytesEncryptor implements Encryptor<byte[], byte[]> {
   private static final int SALT_SIZE = 8;
   private static final int TAG_BIT_LENGTH = 128;
 
+  private static final int KEY_CACHE_SIZE = 1024;
+  private static final Duration KEY_CACHE_TTL = Duration.ofMinutes(10);
+
   static final String PREFIX = "$AES$";
   static final byte[] PREFIX_BYTES = PREFIX.getBytes();
 
@@ -38,7 +57,43 @@ public class BytesEncryptor implements Encryptor<byte[], byte[]> {
 
   private final int payloadSize;
 
+  private final Cache<ByteBuffer, DerivedKey> keyCache;
+
+  // ciphers are not thread safe, each thread reuses its own instance
+  private final ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(this::newCipher);
+
   public BytesEncryptor(OperationMode mode, PaddingScheme paddingScheme, String password) {
+    this(mode, paddingScheme, password, KEY_CACHE_SIZE, KEY_CACHE_TTL);
+  }
+
+  /**
+   * Create a new {@link BytesEncryptor} with a custom cache of the keys derived while decrypting.
+   *
+   * <p>Each encrypted value carries the salt of its key, so the cache avoids deriving the same key
+   * again when decrypting many values encrypted with the same salt. Evicted keys are wiped.
+   *
+   * @param mode the operation mode
+   * @param paddingScheme the padding scheme
+   * @param password the password
+   * @param keyCacheSize the maximum number of cached keys, 0 to disable the cache
+   * @param keyCacheTtl how long an unused key is kept in cache
+   */
+  public BytesEncryptor(
+      OperationMode mode,
+      PaddingScheme paddingScheme,
+      String password,
+      int keyCacheSize,
+      Duration keyCacheTtl) {
+    this(mode, paddingScheme, password, keyCacheSize, keyCacheTtl, Ticker.systemTicker());
+  }
+
+  BytesEncryptor(
+      OperationMode mode,
+      PaddingScheme paddingScheme,
+      String password,
+      int keyCacheSize,
+      Duration keyCacheTtl,
+      Ticker ticker) {
     this.mode = mode;
     this.password = password;
     this.transformation = String.format("%s/%s/%s", AES_ALGORITHM, mode, paddingScheme);
@@ -48,6 +103,18 @@ public class BytesEncryptor implements Encryptor<byte[], byte[]> {
         mode == OperationMode.CBC
             ? PREFIX_BYTES.length + SALT_SIZE
             : PREFIX_BYTES.length + SALT_SIZE + IV_SIZE;
+    this.keyCache =
+        keyCacheSize <= 0
+            ? null
+            : CacheBuilder.newBuilder()
+                .maximumSize(keyCacheSize)
+                .expireAfterAccess(keyCacheTtl)
+                .ticker(ticker)
+                .recordStats()
+                .removalListener(
+                    (RemovalListener<ByteBuffer, DerivedKey>)
+                        notification -> notification.getValue().destroy())
+                .build();
   }
 
   public BytesEncryptor(String password) {
@@ -73,13 +140,34 @@ public class BytesEncryptor implements Encryptor<byte[], byte[]> {
   }
 
   private SecretKey newSecretKey(String password, byte[] salt) {
+    final PBEKeySpec keySpec = new PBEKeySpec(password.toCharArray(), salt, 1024, 256);
     try {
-      final PBEKeySpec keySpec = new PBEKeySpec(password.toCharArray(), salt, 1024, 256);
       final SecretKeyFactory keyFactory = SecretKeyFactory.getInstance(KEY_ALGORITHM);
       final SecretKey tmp = keyFactory.generateSecret(keySpec);
-      return new SecretKeySpec(tmp.getEncoded(), AES_ALGORITHM);
+      final byte[] encoded = tmp.getEncoded();
+      try {
+        return new DerivedKey(encoded);
+      } finally {
+        Arrays.fill(encoded, (byte) 0);
+      }
     } catch (Exception e) {
       throw new EncryptorException(e);
+    } finally {
+      keySpec.clearPassword();
+    }
+  }
+
+  private SecretKey getSecretKey(byte[] salt) {
+    if (Arrays.equals(salt, this.encryptionSalt)) {
+      return this.encryptionKey;
+    }
+    if (keyCache == null) {
+      return newSecretKey(password, salt);
+    }
+    try {
+      return keyCache.get(ByteBuffer.wrap(salt), () -> (DerivedKey) newSecretKey(password, salt));
+    } catch (ExecutionException e) {
+      throw new EncryptorException(e.getCause());
     }
   }
 
@@ -89,10 +177,22 @@ public class BytesEncryptor implements Encryptor<byte[], byte[]> {
         : new GCMParameterSpec(TAG_BIT_LENGTH, iv);
   }
 
-  private Cipher newCipher(int mode, SecretKey key, byte[] iv) {
+  private Cipher newCipher() {
+    try {
+      return Cipher.getInstance(this.transformation);
+    } catch (Exception e) {
+      throw new EncryptorException(e);
+    }
+  }
+
+  private Cipher initCipher(int mode, SecretKey key, byte[] iv) {
+    // init() resets the cipher, for GCM the IV is random on every encryption
+    return initCipher(this.ciphers.get(), mode, key, iv);
+  }
+
+  private Cipher initCipher(Cipher cipher, int mode, SecretKey key, byte[] iv) {
     try {
       final AlgorithmParameterSpec paramSpec = newParameterSpec(iv);
-      final Cipher cipher = Cipher.getInstance(this.transformation);
       cipher.init(mode, key, paramSpec);
       return cipher;
     } catch (Exception e) {
@@ -100,9 +200,26 @@ public class BytesEncryptor implements Encryptor<byte[], byte[]> {
     }
   }
 
-  private byte[] doFinal(Cipher cipher, byte[] data) {
+  private Cipher initDecryption(Cipher cipher, byte[] salt, byte[] iv) {
+    final SecretKey key = getSecretKey(salt);
     try {
-      return cipher.doFinal(data);
+      return initCipher(cipher, Cipher.DECRYPT_MODE, key, iv);
+    } catch (EncryptorException e) {
+      // the cached key was evicted and wiped in the meantime
+      if (!key.isDestroyed()) {
+        throw e;
+      }
+      return initCipher(cipher, Cipher.DECRYPT_MODE, newSecretKey(password, salt), iv);
+    }
+  }
+
+  private byte[] newIv() {
+    return this.mode == OperationMode.CBC ? new byte[IV_SIZE] : generateRandomBytes(IV_SIZE);
+  }
+
+  private byte[] doFinal(Cipher cipher, byte[] data, int offset) {
+    try {
+      return cipher.doFinal(data, offset, data.length - offset);
     } catch (Exception e) {
       throw new EncryptorException(e);
     }
@@ -113,9 +230,7 @@ public class BytesEncryptor implements Encryptor<byte[], byte[]> {
     if (bytes == null || bytes.length < this.payloadSize) {
       return false;
     }
-    final byte[] prefix = new byte[PREFIX_BYTES.length];
-    System.arraycopy(bytes, 0, prefix, 0, prefix.length);
-    return Arrays.equals(prefix, PREFIX_BYTES);
+    return Arrays.equals(bytes, 0, PREFIX_BYTES.length, PREFIX_BYTES, 0, PREFIX_BYTES.length);
   }
 
   @Override
@@ -124,14 +239,43 @@ public class BytesEncryptor implements Encryptor<byte[], byte[]> {
       return bytes;
     }
 
-    final byte[] iv =
-        this.mode == OperationMode.CBC ? new byte[IV_SIZE] : generateRandomBytes(IV_SIZE);
-    final Cipher cipher = newCipher(Cipher.ENCRYPT_MODE, this.encryptionKey, iv);
-    final byte[] encrypted = doFinal(cipher, bytes);
+    final byte[] iv = newIv();
+    final Cipher cipher = initCipher(Cipher.ENCRYPT_MODE, this.encryptionKey, iv);
+    final byte[] encrypted = new byte[this.payloadSize + cipher.getOutputSize(bytes.length)];
 
+    writeHeader(encrypted, iv);
+    try {
+      final int size = cipher.doFinal(bytes, 0, bytes.length, encrypted, this.payloadSize);
+      return this.payloadSize + size == encrypted.length
+          ? encrypted
+          : Arrays.copyOf(encrypted, this.payloadSize + size);
+    } catch (Exception e) {
+      throw new EncryptorException(e);
+    }
+  }
+
+  private void writeHeader(byte[] target, byte[] iv) {
+    int index = 0;
+    for (byte[] section : headerSections(this.encryptionSalt, iv)) {
+      System.arraycopy(section, 0, target, index, section.length);
+      index += section.length;
+    }
+  }
+
+  private List<byte[]> headerSections(byte[] salt, byte[] iv) {
     return this.mode == OperationMode.CBC
-        ? Bytes.concat(PREFIX_BYTES, this.encryptionSalt, encrypted)
-        : Bytes.concat(PREFIX_BYTES, this.encryptionSalt, iv, encrypted);
+        ? Arrays.asList(PREFIX_BYTES, salt)
+        : Arrays.asList(PREFIX_BYTES, salt, iv);
+  }
+
+  private void readHeader(byte[] source, byte[] salt, byte[] iv) {
+    int index = 0;
+    for (byte[] section : headerSections(salt, iv)) {
+      if (section != PREFIX_BYTES) {
+        System.arraycopy(source, index, section, 0, section.length);
+      }
+      index += section.length;
+    }
   }
 
   @Override
@@ -142,20 +286,211 @@ public class BytesEncryptor implements Encryptor<byte[], byte[]> {
 
     final byte[] salt = new byte[SALT_SIZE];
     final byte[] iv = new byte[IV_SIZE];
-    final byte[] data = new byte[bytes.length - this.payloadSize];
 
-    final List<byte[]> sections =
-        this.mode == OperationMode.CBC ? Arrays.asList(salt, data) : Arrays.asList(salt, iv, data);
+    readHeader(bytes, salt, iv);
 
-    int index = PREFIX_BYTES.length;
-    for (byte[] section : sections) {
-      System.arraycopy(bytes, index, section, 0, section.length);
-      index += section.length;
+    final Cipher cipher = initDecryption(this.ciphers.get(), salt, iv);
+    return doFinal(cipher, bytes, this.payloadSize);
+  }
+
+  /**
+   * Check whether the remaining bytes of the given buffer are encrypted, without changing its
+   * position.
+   *
+   * @param buffer the buffer to check
+   * @return true if encrypted
+   */
+  public boolean isEncrypted(ByteBuffer buffer) {
+    if (buffer == null || buffer.remaining() < this.payloadSize) {
+      return false;
+    }
+    final int position = buffer.position();
+    for (int i = 0; i < PREFIX_BYTES.length; i++) {
+      if (buffer.get(position + i) != PREFIX_BYTES[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Get the size of the encrypted form of the given number of bytes.
+   *
+   * @param length the number of plain bytes
+   * @return the number of encrypted bytes
+   */
+  public int getEncryptedSize(int length) {
+    return this.mode == OperationMode.CBC
+        ? this.payloadSize + (length / IV_SIZE + 1) * IV_SIZE
+        : this.payloadSize + length + TAG_BIT_LENGTH / 8;
+  }
+
+  /**
+   * Encrypt the remaining bytes of the input buffer into the output buffer.
+   *
+   * <p>Both buffers can be direct buffers. The output buffer must have at least {@link
+   * #getEncryptedSize(int)} bytes remaining. Already encrypted input is copied as is.
+   *
+   * @param input the plain bytes
+   * @param output the buffer receiving the encrypted bytes
+   * @return the number of bytes written to the output buffer
+   */
+  public int encrypt(ByteBuffer input, ByteBuffer output) {
+    if (isEncrypted(input)) {
+      final int size = input.remaining();
+      output.put(input);
+      return size;
+    }
+
+    final byte[] iv = newIv();
+    final Cipher cipher = initCipher(Cipher.ENCRYPT_MODE, this.encryptionKey, iv);
+    for (byte[] section : headerSections(this.encryptionSalt, iv)) {
+      output.put(section);
+    }
+    try {
+      return this.payloadSize + cipher.doFinal(input, output);
+    } catch (Exception e) {
+      throw new EncryptorException(e);
+    }
+  }
+
+  /**
+   * Decrypt the remaining bytes of the input buffer into the output buffer.
+   *
+   * <p>Both buffers can be direct buffers. The output buffer needs as many bytes remaining as the
+   * input buffer. Input that isn't encrypted is copied as is.
+   *
+   * @param input the encrypted bytes
+   * @param output the buffer receiving the plain bytes
+   * @return the number of bytes written to the output buffer
+   */
+  public int decrypt(ByteBuffer input, ByteBuffer output) {
+    if (!isEncrypted(input)) {
+      final int size = input.remaining();
+      output.put(input);
+      return size;
+    }
+
+    final byte[] salt = new byte[SALT_SIZE];
+    final byte[] iv = new byte[IV_SIZE];
+
+    input.position(input.position() + PREFIX_BYTES.length);
+    input.get(salt);
+    if (this.mode == OperationMode.GCM) {
+      input.get(iv);
+    }
+
+    final Cipher cipher = initDecryption(this.ciphers.get(), salt, iv);
+    try {
+      return cipher.doFinal(input, output);
+    } catch (Exception e) {
+      throw new EncryptorException(e);
+    }
+  }
+
+  /**
+   * Wrap the given stream so that everything written to it gets encrypted.
+   *
+   * <p>The data has the same format as {@link #encrypt(byte[])}. The header is written right away
+   * and closing the returned stream writes the final block and closes the given stream.
+   *
+   * @param out the stream receiving the encrypted data
+   * @return the stream to write the plain data to
+   * @throws IOException if the header can't be written
+   */
+  public OutputStream encrypt(OutputStream out) throws IOException {
+    final byte[] iv = newIv();
+    final Cipher cipher = initCipher(newCipher(), Cipher.ENCRYPT_MODE, this.encryptionKey, iv);
+    for (byte[] section : headerSections(this.encryptionSalt, iv)) {
+      out.write(section);
+    }
+    return new CipherOutputStream(out, cipher);
+  }
+
+  /**
+   * Wrap the given stream of encrypted data to read it decrypted.
+   *
+   * <p>Like {@link #decrypt(byte[])}, data without the encryption header is returned as is. In
+   * {@code GCM} mode, the cipher can't release any data before the authentication tag at the end
+   * has been verified, so the whole payload is buffered by the cipher.
+   *
+   * @param in the stream of encrypted data
+   * @return the stream to read the decrypted data from
+   * @throws IOException if the header can't be read
+   */
+  public InputStream decrypt(InputStream in) throws IOException {
+    final PushbackInputStream source = new PushbackInputStream(in, this.payloadSize);
+    final byte[] header = source.readNBytes(this.payloadSize);
+    if (!isEncrypted(header)) {
+      source.unread(header);
+      return source;
     }
 
-    final SecretKey key = newSecretKey(password, salt);
-    final Cipher cipher = newCipher(Cipher.DECRYPT_MODE, key, iv);
-    return doFinal(cipher, data);
+    final byte[] salt = new byte[SALT_SIZE];
+    final byte[] iv = new byte[IV_SIZE];
+
+    readHeader(header, salt, iv);
+
+    return new CipherInputStream(source, initDecryption(newCipher(), salt, iv));
+  }
+
+  /**
+   * Encrypt the given stream to the given output stream. None of the streams are closed.
+   *
+   * @param in the plain data
+   * @param out the stream receiving the encrypted data
+   * @throws IOException if an I/O error occurs
+   */
+  public void encrypt(InputStream in, OutputStream out) throws IOException {
+    try (OutputStream encrypted = encrypt(CloseShieldOutputStream.wrap(out))) {
+      in.transferTo(encrypted);
+    }
+  }
+
+  /**
+   * Decrypt the given stream to the given output stream. None of the streams are closed.
+   *
+   * @param in the encrypted data
+   * @param out the stream receiving the plain data
+   * @throws IOException if an I/O error occurs
+   */
+  public void decrypt(InputStream in, OutputStream out) throws IOException {
+    try (InputStream decrypted = decrypt(CloseShieldInputStream.wrap(in))) {
+      decrypted.transferTo(out);
+    }
+  }
+
+  /**
+   * Wrap the given channel so that everything written to it gets encrypted.
+   *
+   * @param channel the channel receiving the encrypted data
+   * @return the channel to write the plain data to
+   * @throws IOException if the header can't be written
+   * @see #encrypt(OutputStream)
+   */
+  public WritableByteChannel encrypt(WritableByteChannel channel) throws IOException {
+    return Channels.newChannel(encrypt(Channels.newOutputStream(channel)));
+  }
+
+  /**
+   * Wrap the given channel of encrypted data to read it decrypted.
+   *
+   * @param channel the channel of encrypted data
+   * @return the channel to read the decrypted data from
+   * @throws IOException if the header can't be read
+   * @see #decrypt(InputStream)
+   */
+  public ReadableByteChannel decrypt(ReadableByteChannel channel) throws IOException {
+    return Channels.newChannel(decrypt(Channels.newInputStream(channel)));
+  }
+
+  /**
+   * Get the cache of the keys derived while decrypting.
+   *
+   * @return the key cache or null if disabled
+   */
+  Cache<ByteBuffer, ? extends SecretKey> getKeyCache() {
+    return keyCache;
   }
 
   @Override
@@ -164,4 +499,47 @@ public class BytesEncryptor implements Encryptor<byte[], byte[]> {
         .addValue(this.transformation)
         .toString();
   }
+
+  /** An AES key whose material can be wiped once it's no longer used. */
+  private static final class DerivedKey implements SecretKey {
+
+    private static final long serialVersionUID = -2360942461813440557L;
+
+    private final byte[] key;
+
+    private boolean destroyed;
+
+    DerivedKey(byte[] key) {
+      this.key = key.clone();
+    }
+
+    @Override
+    public String getAlgorithm() {
+      return AES_ALGORITHM;
+    }
+
+    @Override
+    public String getFormat() {
+      return "RAW";
+    }
+
+    @Override
+    public synchronized byte[] getEncoded() {
+      if (destroyed) {
+        throw new IllegalStateException("key has been destroyed");
+      }
+      return key.clone();
+    }
+
+    @Override
+    public synchronized void destroy() {
+      Arrays.fill(key, (byte) 0);
+      destroyed = true;
+    }
+
+    @Override
+    public synchronized boolean isDestroyed() {
+      return destroyed;
+    }
+  }
 }
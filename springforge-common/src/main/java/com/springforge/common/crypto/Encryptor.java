@@ -1,6 +1,15 @@
-
 package com.springforge.common.crypto;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
 /**
  * The {@link Encryptor} interface.
  *
@@ -32,4 +41,102 @@ public interface Encryptor<T, R> {
    * @return decrypted message
    */
   T decrypt(R encryptedMessage);
+
+  /**
+   * Encrypt the given messages in parallel using the common fork-join pool.
+   *
+   * @param messages the messages to encrypt
+   * @return encrypted messages, in the same order
+   */
+  default List<R> encryptAll(Collection<? extends T> messages) {
+    return encryptAll(messages, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Encrypt the given messages in parallel using the given executor.
+   *
+   * @param messages the messages to encrypt
+   * @param executor the executor running the work
+   * @return encrypted messages, in the same order
+   */
+  default List<R> encryptAll(Collection<? extends T> messages, Executor executor) {
+    return applyAll(messages, executor, this::encrypt);
+  }
+
+  /**
+   * Encrypt the given stream of messages in parallel.
+   *
+   * @param messages the messages to encrypt
+   * @return parallel stream of encrypted messages, in the same order if the source is ordered
+   */
+  default Stream<R> encryptAll(Stream<? extends T> messages) {
+    return messages.parallel().map(this::encrypt);
+  }
+
+  /**
+   * Decrypt the given messages in parallel using the common fork-join pool.
+   *
+   * @param encryptedMessages the messages to decrypt
+   * @return decrypted messages, in the same order
+   */
+  default List<T> decryptAll(Collection<? extends R> encryptedMessages) {
+    return decryptAll(encryptedMessages, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Decrypt the given messages in parallel using the given executor.
+   *
+   * @param encryptedMessages the messages to decrypt
+   * @param executor the executor running the work
+   * @return decrypted messages, in the same order
+   */
+  default List<T> decryptAll(Collection<? extends R> encryptedMessages, Executor executor) {
+    return applyAll(encryptedMessages, executor, this::decrypt);
+  }
+
+  /**
+   * Decrypt the given stream of messages in parallel.
+   *
+   * @param encryptedMessages the messages to decrypt
+   * @return parallel stream of decrypted messages, in the same order if the source is ordered
+   */
+  default Stream<T> decryptAll(Stream<? extends R> encryptedMessages) {
+    return encryptedMessages.parallel().map(this::decrypt);
+  }
+
+  private static <A, B> List<B> applyAll(
+      Collection<? extends A> values, Executor executor, Function<A, B> func) {
+    final List<A> all = new ArrayList<>(values);
+    final int workers = Runtime.getRuntime().availableProcessors();
+    // a few chunks per worker, each chunk runs on a single thread and so shares its cipher
+    final int chunkSize = Math.max(1, all.size() / (workers * 4));
+
+    final List<CompletableFuture<List<B>>> chunks = new ArrayList<>();
+    for (int start = 0; start < all.size(); start += chunkSize) {
+      final List<A> chunk = all.subList(start, Math.min(start + chunkSize, all.size()));
+      chunks.add(
+          CompletableFuture.supplyAsync(
+              () -> {
+                final List<B> result = new ArrayList<>(chunk.size());
+                for (A value : chunk) {
+                  result.add(func.apply(value));
+                }
+                return result;
+              },
+              executor));
+    }
+
+    final List<B> result = new ArrayList<>(all.size());
+    try {
+      for (CompletableFuture<List<B>> chunk : chunks) {
+        result.addAll(chunk.join());
+      }
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new EncryptorException(e.getCause());
+    }
+    return result;
+  }
 }
@@ -3,7 +3,9 @@ package com.springforge.common.crypto;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.io.BaseEncoding;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 
 /** The {@link StringEncryptor} can be used to encrypt/decrypt {@link String} values. */
 public class StringEncryptor implements Encryptor<String, String> {
@@ -14,10 +16,13 @@ public class StringEncryptor implements Encryptor<String, String> {
 
   private final String prefix;
 
+  private final boolean[] prefixEnds;
+
   public StringEncryptor(BytesEncryptor encryptor) {
     this.encryptor = encryptor;
     this.encoder = BaseEncoding.base64();
     this.prefix = this.encoder.omitPadding().encode(BytesEncryptor.PREFIX_BYTES);
+    this.prefixEnds = findPrefixEnds(this.encoder, this.prefix);
   }
 
   public static StringEncryptor cbc(String password) {
@@ -35,17 +40,28 @@ public class StringEncryptor implements Encryptor<String, String> {
       return false;
     }
 
-    String prefix = message.substring(0, this.prefix.length());
-
-    if (!this.encoder.canDecode(prefix)) {
+    // the leading chars encode whole prefix bytes, the last one is shared with the salt
+    final int last = this.prefix.length() - 1;
+    if (!message.regionMatches(0, this.prefix, 0, last)) {
       return false;
     }
 
-    byte[] bytes = this.encoder.omitPadding().decode(prefix);
-
-    prefix = new String(bytes, StandardCharsets.UTF_8);
+    final char c = message.charAt(last);
+    return c < this.prefixEnds.length && this.prefixEnds[c];
+  }
 
-    return BytesEncryptor.PREFIX.equals(prefix);
+  private static boolean[] findPrefixEnds(BaseEncoding encoder, String prefix) {
+    final String head = prefix.substring(0, prefix.length() - 1);
+    final boolean[] ends = new boolean[128];
+    for (char c = 0; c < ends.length; c++) {
+      final String candidate = head + c;
+      if (!encoder.omitPadding().canDecode(candidate)) {
+        continue;
+      }
+      final byte[] bytes = encoder.omitPadding().decode(candidate);
+      ends[c] = BytesEncryptor.PREFIX.equals(new String(bytes, StandardCharsets.UTF_8));
+    }
+    return ends;
   }
 
   @Override
@@ -53,8 +69,12 @@ public class StringEncryptor implements Encryptor<String, String> {
     if (message == null || isEncrypted(message)) {
       return message;
     }
-    byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
-    return encoder.encode(encryptor.encrypt(bytes));
+    // encrypt straight into an array of the final size, then encode it as is
+    final byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+    final byte[] encrypted = new byte[encryptor.getEncryptedSize(bytes.length)];
+    final int size = encryptor.encrypt(ByteBuffer.wrap(bytes), ByteBuffer.wrap(encrypted));
+    final ByteBuffer encoded = Base64.getEncoder().encode(ByteBuffer.wrap(encrypted, 0, size));
+    return new String(encoded.array(), 0, encoded.remaining(), StandardCharsets.US_ASCII);
   }
 
   @Override
@@ -62,8 +82,10 @@ public class StringEncryptor implements Encryptor<String, String> {
     if (encryptedMessage == null || !isEncrypted(encryptedMessage)) {
       return encryptedMessage;
     }
-    byte[] decrypted = encryptor.decrypt(encoder.decode(encryptedMessage));
-    return new String(decrypted, StandardCharsets.UTF_8);
+    final byte[] bytes = Base64.getDecoder().decode(encryptedMessage);
+    final byte[] decrypted = new byte[bytes.length];
+    final int size = encryptor.decrypt(ByteBuffer.wrap(bytes), ByteBuffer.wrap(decrypted));
+    return new String(decrypted, 0, size, StandardCharsets.UTF_8);
   }
 
   @Override
@@ -0,0 +1,187 @@
+package com.springforge.common.csv;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The {@link AsyncWriter} collects chars into large buffers and hands the full buffers to a
+ * background thread, which encodes and writes them to the target writer.
+ *
+ * <p>A few buffers are recycled between the threads, writing blocks while all of them are pending.
+ * A failure of the background thread is reported by the next write, flush or close.
+ */
+final class AsyncWriter extends Writer {
+
+  private static final int MAX_PENDING = 4;
+
+  private final Writer out;
+
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          r -> {
+            final Thread thread = new Thread(r, "csv-writer");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final BlockingQueue<char[]> buffers = new ArrayBlockingQueue<>(MAX_PENDING);
+
+  private final AtomicReference<Exception> error = new AtomicReference<>();
+
+  private char[] buffer;
+  private int count;
+  private boolean closed;
+
+  AsyncWriter(Writer out, int bufferSize) {
+    this.out = out;
+    for (int i = 0; i < MAX_PENDING; i++) {
+      buffers.add(new char[bufferSize]);
+    }
+    this.buffer = buffers.poll();
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    ensureOpen();
+    if (count == buffer.length) {
+      dispatch();
+    }
+    buffer[count++] = (char) c;
+  }
+
+  @Override
+  public void write(char[] cbuf, int off, int len) throws IOException {
+    ensureOpen();
+    while (len > 0) {
+      if (count == buffer.length) {
+        dispatch();
+      }
+      final int n = Math.min(len, buffer.length - count);
+      System.arraycopy(cbuf, off, buffer, count, n);
+      count += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  @Override
+  public void write(String str, int off, int len) throws IOException {
+    ensureOpen();
+    while (len > 0) {
+      if (count == buffer.length) {
+        dispatch();
+      }
+      final int n = Math.min(len, buffer.length - count);
+      str.getChars(off, off + n, buffer, count);
+      count += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    if (count > 0) {
+      dispatch();
+    }
+    await(executor.submit(() -> run(out::flush)));
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    try {
+      if (count > 0 && error.get() == null) {
+        dispatch();
+      }
+    } finally {
+      try {
+        // always close the target, even after a failure
+        await(
+            executor.submit(
+                () -> {
+                  try {
+                    out.close();
+                  } catch (IOException | RuntimeException e) {
+                    error.compareAndSet(null, e);
+                  }
+                }));
+      } finally {
+        closed = true;
+        executor.shutdown();
+      }
+    }
+  }
+
+  private void dispatch() throws IOException {
+    check();
+    final char[] chars = buffer;
+    final int length = count;
+    executor.execute(
+        () -> {
+          try {
+            run(() -> out.write(chars, 0, length));
+          } finally {
+            buffers.add(chars);
+          }
+        });
+    try {
+      buffer = buffers.take();
+      count = 0;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while writing");
+    }
+  }
+
+  private interface Task {
+    void run() throws IOException;
+  }
+
+  private void run(Task task) {
+    if (error.get() != null) {
+      return;
+    }
+    try {
+      task.run();
+    } catch (IOException | RuntimeException e) {
+      error.compareAndSet(null, e);
+    }
+  }
+
+  private void await(Future<?> future) throws IOException {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while writing");
+    } catch (ExecutionException e) {
+      throw new IOException(e.getCause());
+    }
+    check();
+  }
+
+  private void check() throws IOException {
+    final Exception e = error.get();
+    if (e != null) {
+      throw new IOException("Unable to write csv data", e);
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Writer closed");
+    }
+  }
+}
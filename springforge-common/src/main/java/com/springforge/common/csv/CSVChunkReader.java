@@ -0,0 +1,162 @@
+package com.springforge.common.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+import org.apache.commons.csv.CSVFormat;
+
+/**
+ * The {@link CSVChunkReader} splits csv text into chunks of whole records without parsing them, so
+ * that each chunk can be handed to its own {@link org.apache.commons.csv.CSVParser}.
+ *
+ * <p>Records are split on line breaks found outside of quoted values. Like the commons-csv lexer, a
+ * quote only opens a value at the start of a field, and two quotes inside a quoted value stand for
+ * an escaped quote. The escape character and comment lines of the format are taken into account.
+ */
+final class CSVChunkReader {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Reader reader;
+
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int position;
+  private int limit;
+
+  private final Character quote;
+  private final Character escape;
+  private final Character comment;
+  private final String delimiter;
+  private final boolean ignoreSpaces;
+
+  private boolean quoted;
+  private boolean closing;
+  private boolean escaped;
+  private boolean commented;
+  private boolean recordStart = true;
+  private boolean fieldStart = true;
+  private boolean lineFeedPending;
+  private int delimiterMatch;
+
+  CSVChunkReader(Reader reader, CSVFormat format) {
+    this.reader = reader;
+    this.quote = format.getQuoteCharacter();
+    this.escape = format.getEscapeCharacter();
+    this.comment = format.getCommentMarker();
+    this.delimiter = format.getDelimiterString();
+    this.ignoreSpaces = format.getIgnoreSurroundingSpaces();
+  }
+
+  /**
+   * Read the text of the next records.
+   *
+   * @param records the maximum number of records to read
+   * @return the text of the records, or null at the end of input
+   * @throws IOException if the input can't be read
+   */
+  String read(int records) throws IOException {
+    final StringBuilder chunk = new StringBuilder();
+    int count = 0;
+    // the line feed of a \r\n that ended the previous chunk
+    if (lineFeedPending && (position < limit || fill()) && buffer[position] == '\n') {
+      position++;
+    }
+    lineFeedPending = false;
+    while (count < records) {
+      if (position == limit && !fill()) {
+        break;
+      }
+      final int start = position;
+      while (position < limit && count < records) {
+        if (next(buffer[position++])) {
+          count++;
+        }
+      }
+      chunk.append(buffer, start, position - start);
+    }
+    return chunk.length() == 0 ? null : chunk.toString();
+  }
+
+  private boolean fill() throws IOException {
+    final int read = reader.read(buffer, 0, buffer.length);
+    position = 0;
+    limit = Math.max(read, 0);
+    return read > 0;
+  }
+
+  // returns true if the given char ends a record
+  private boolean next(char c) {
+    if (escaped) {
+      escaped = false;
+      fieldStart = false;
+      return false;
+    }
+    if (closing) {
+      closing = false;
+      if (c == quote) {
+        // an escaped quote, the value goes on
+        quoted = true;
+        return false;
+      }
+    }
+    if (quoted) {
+      if (isEscape(c)) {
+        escaped = true;
+      } else if (c == quote) {
+        quoted = false;
+        closing = true;
+      }
+      return false;
+    }
+    if (c == '\n' && lineFeedPending) {
+      lineFeedPending = false;
+      return false;
+    }
+    lineFeedPending = false;
+    if (c == '\n' || c == '\r') {
+      lineFeedPending = c == '\r';
+      commented = false;
+      recordStart = true;
+      fieldStart = true;
+      delimiterMatch = 0;
+      return true;
+    }
+    if (commented) {
+      return false;
+    }
+    if (recordStart && comment != null && c == comment) {
+      commented = true;
+      recordStart = false;
+      return false;
+    }
+    recordStart = false;
+    if (isEscape(c)) {
+      escaped = true;
+    } else if (fieldStart && quote != null && c == quote) {
+      quoted = true;
+      fieldStart = false;
+    } else if (isDelimiter(c)) {
+      fieldStart = true;
+    } else if (!ignoreSpaces || !Character.isWhitespace(c)) {
+      fieldStart = false;
+    }
+    return false;
+  }
+
+  private boolean isEscape(char c) {
+    return escape != null && c == escape && !escape.equals(quote);
+  }
+
+  private boolean isDelimiter(char c) {
+    if (c != delimiter.charAt(delimiterMatch)) {
+      delimiterMatch = 0;
+      if (c != delimiter.charAt(0)) {
+        return false;
+      }
+    }
+    if (++delimiterMatch < delimiter.length()) {
+      return false;
+    }
+    delimiterMatch = 0;
+    return true;
+  }
+}
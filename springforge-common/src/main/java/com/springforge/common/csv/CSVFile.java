@@ -2,21 +2,36 @@
 package com.springforge.common.csv;
 
 import com.springforge.common.StringUtils;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVPrinter;
@@ -33,30 +48,81 @@ public final class CSVFile {
 
   public static final CSVFile EXCEL = new CSVFile(CSVFormat.EXCEL);
 
+  private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
   private final CSVFormat format;
 
+  private final int bufferSize;
+  private final boolean gzip;
+  private final boolean async;
+
   private CSVFile(CSVFormat format) {
+    this(format, DEFAULT_BUFFER_SIZE, false, false);
+  }
+
+  private CSVFile(CSVFormat format, int bufferSize, boolean gzip, boolean async) {
     this.format = format;
+    this.bufferSize = bufferSize;
+    this.gzip = gzip;
+    this.async = async;
+  }
+
+  private CSVFile with(CSVFormat format) {
+    return new CSVFile(format, bufferSize, gzip, async);
   }
 
   public CSVFile withDelimiter(char delimiter) {
-    return new CSVFile(format.builder().setDelimiter(delimiter).build());
+    return with(format.builder().setDelimiter(delimiter).build());
   }
 
   public CSVFile withEscape(char escape) {
-    return new CSVFile(format.builder().setEscape(escape).build());
+    return with(format.builder().setEscape(escape).build());
   }
 
   public CSVFile withQuoteAll() {
-    return new CSVFile(format.builder().setQuoteMode(QuoteMode.ALL).build());
+    return with(format.builder().setQuoteMode(QuoteMode.ALL).build());
   }
 
   public CSVFile withFirstRecordAsHeader() {
-    return new CSVFile(format.builder().setHeader().setSkipHeaderRecord(true).build());
+    return with(format.builder().setHeader().setSkipHeaderRecord(true).build());
   }
 
   public CSVFile withHeader(String... header) {
-    return new CSVFile(format.builder().setHeader(header).build());
+    return with(format.builder().setHeader(header).build());
+  }
+
+  /**
+   * Use buffers of the given size to read and write streams and files.
+   *
+   * @param bufferSize the buffer size, 64k by default
+   * @return a new {@link CSVFile}
+   */
+  public CSVFile withBufferSize(int bufferSize) {
+    if (bufferSize < 1) {
+      throw new IllegalArgumentException("buffer size must be positive");
+    }
+    return new CSVFile(format, bufferSize, gzip, async);
+  }
+
+  /**
+   * Read and write streams and files in gzip format.
+   *
+   * @return a new {@link CSVFile}
+   */
+  public CSVFile withGzip() {
+    return new CSVFile(format, bufferSize, true, async);
+  }
+
+  /**
+   * Encode and write the output to streams and files from a background thread, so that formatting
+   * the records and writing to disk run in parallel.
+   *
+   * <p>Write failures are reported by the next print, flush or close of the {@link CSVPrinter}.
+   *
+   * @return a new {@link CSVFile}
+   */
+  public CSVFile withAsyncWrite() {
+    return new CSVFile(format, bufferSize, gzip, true);
   }
 
   public CSVParser parse(InputStream in) throws IOException {
@@ -64,7 +130,7 @@ public final class CSVFile {
   }
 
   public CSVParser parse(InputStream in, Charset charset) throws IOException {
-    return parse(new InputStreamReader(BOMInputStream.builder().setInputStream(in).get(), charset));
+    return parse(reader(in, charset));
   }
 
   public CSVParser parse(Reader in) throws IOException {
@@ -79,12 +145,53 @@ public final class CSVFile {
     return parse(new FileInputStream(in), charset);
   }
 
+  /**
+   * Open the given UTF-8 file with a memory mapped reader.
+   *
+   * <p>Unlike {@link #parse(File)}, values are decoded only when they are accessed, which is
+   * cheaper when only a few columns are read.
+   *
+   * @param in the file to read
+   * @return the {@link MappedCSVReader}
+   * @throws IOException if the file can't be mapped
+   * @throws IllegalArgumentException if the format uses non ascii delimiter, quote or escape
+   * @throws IllegalStateException if gzip is enabled
+   */
+  public MappedCSVReader map(File in) throws IOException {
+    if (gzip) {
+      throw new IllegalStateException("gzip files can't be memory mapped");
+    }
+    return new MappedCSVReader(in.toPath(), format, MappedCSVReader.WINDOW_SIZE);
+  }
+
+  /**
+   * Open the given UTF-8 file to read the columns declared by the given schema.
+   *
+   * <p>The format must define a header, the columns are looked up by name.
+   *
+   * @param in the file to read
+   * @param schema the columns to read
+   * @return the {@link CSVRowReader}
+   * @throws IOException if the file can't be mapped
+   * @throws IllegalArgumentException if a column of the schema is not found in the header
+   * @see #map(File)
+   */
+  public CSVRowReader read(File in, CSVSchema schema) throws IOException {
+    final MappedCSVReader reader = map(in);
+    try {
+      return new CSVRowReader(reader, schema);
+    } catch (RuntimeException e) {
+      reader.close();
+      throw e;
+    }
+  }
+
   public CSVPrinter write(Writer out) throws IOException {
     return new CSVPrinter(out, format);
   }
 
   public CSVPrinter write(OutputStream out, Charset charset) throws IOException {
-    return write(new OutputStreamWriter(out, charset));
+    return write(writer(out, charset));
   }
 
   public CSVPrinter write(File out, Charset charset) throws IOException {
@@ -96,11 +203,7 @@ public final class CSVFile {
   }
 
   public void parse(File in, Consumer<CSVParser> task) throws IOException {
-    parse(
-        new InputStreamReader(
-            BOMInputStream.builder().setInputStream(new FileInputStream(in)).get(),
-            StandardCharsets.UTF_8),
-        task);
+    parse(reader(new FileInputStream(in), StandardCharsets.UTF_8), task);
   }
 
   public void parse(Reader in, Consumer<CSVParser> task) throws IOException {
@@ -109,6 +212,176 @@ public final class CSVFile {
     }
   }
 
+  /**
+   * Parse the given file in parallel, passing batches of non-empty records to the given task.
+   *
+   * @param in the file to parse
+   * @param batchSize the number of records per batch
+   * @param parallelism the number of parser threads
+   * @param task the task to run with each batch
+   * @throws IOException if the file can't be read or parsed
+   * @see #parse(Reader, int, int, Consumer)
+   */
+  public void parse(File in, int batchSize, int parallelism, Consumer<List<CSVRecord>> task)
+      throws IOException {
+    parse(reader(new FileInputStream(in), StandardCharsets.UTF_8), batchSize, parallelism, task);
+  }
+
+  /**
+   * Parse the given input in parallel, passing batches of non-empty records to the given task.
+   *
+   * <p>The input is split into chunks of {@code batchSize} records on line feeds found outside of
+   * quoted values, and each chunk is parsed on its own thread. At most two chunks per thread are
+   * kept in memory, reading is paused until a thread is available.
+   *
+   * <p>The task is called concurrently from the parser threads and the batches are not passed in
+   * input order. {@link CSVRecord#getRecordNumber()} is relative to the batch.
+   *
+   * @param in the input to parse, closed once done
+   * @param batchSize the number of records per batch
+   * @param parallelism the number of parser threads
+   * @param task the task to run with each batch
+   * @throws IOException if the input can't be read or parsed
+   */
+  public void parse(Reader in, int batchSize, int parallelism, Consumer<List<CSVRecord>> task)
+      throws IOException {
+    if (batchSize < 1 || parallelism < 1) {
+      throw new IllegalArgumentException("batch size and parallelism must be positive");
+    }
+    Objects.requireNonNull(task, "task cannot be null");
+
+    try (Reader reader = in) {
+      final CSVChunkReader chunks = new CSVChunkReader(reader, format);
+      final CSVFormat chunkFormat = chunkFormat(chunks);
+      if (chunkFormat == null) {
+        return;
+      }
+
+      final int maxChunks = parallelism * 2;
+      final Semaphore permits = new Semaphore(maxChunks);
+      final AtomicReference<Throwable> error = new AtomicReference<>();
+      final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+      try {
+        String chunk;
+        while (error.get() == null && (chunk = chunks.read(batchSize)) != null) {
+          permits.acquire();
+          final String text = chunk;
+          executor.execute(
+              () -> {
+                try {
+                  final List<CSVRecord> records = parseChunk(text, chunkFormat);
+                  if (!records.isEmpty()) {
+                    task.accept(records);
+                  }
+                } catch (Throwable e) {
+                  error.compareAndSet(null, e);
+                } finally {
+                  permits.release();
+                }
+              });
+        }
+        // wait for the running chunks
+        permits.acquire(maxChunks);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("interrupted while parsing");
+      } finally {
+        executor.shutdownNow();
+        awaitTermination(executor);
+      }
+
+      final Throwable e = error.get();
+      if (e instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) e).getCause();
+      }
+      if (e instanceof IOException) {
+        throw (IOException) e;
+      }
+      if (e instanceof RuntimeException) {
+        throw (RuntimeException) e;
+      }
+      if (e instanceof Error) {
+        throw (Error) e;
+      }
+    }
+  }
+
+  // no task is left running once parse returns, unless the caller is interrupted
+  private static void awaitTermination(ExecutorService executor) {
+    try {
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // the format used to parse the chunks, with the header resolved upfront
+  private CSVFormat chunkFormat(CSVChunkReader chunks) throws IOException {
+    final String[] header = format.getHeader();
+    if (header == null) {
+      return format;
+    }
+    if (header.length > 0 && !format.getSkipHeaderRecord()) {
+      return format;
+    }
+
+    final String text = headerRecord(chunks);
+    if (text == null) {
+      return null;
+    }
+    if (header.length > 0) {
+      return format.builder().setSkipHeaderRecord(false).build();
+    }
+    try (CSVParser parser = CSVParser.parse(text, format)) {
+      return format.builder().setHeader(header(parser)).setSkipHeaderRecord(false).build();
+    }
+  }
+
+  // the text of the header record, skipping the empty and comment lines like CSVParser does
+  private String headerRecord(CSVChunkReader chunks) throws IOException {
+    final CSVFormat recordFormat =
+        format.builder().setHeader((String[]) null).setSkipHeaderRecord(false).build();
+    String text;
+    while ((text = chunks.read(1)) != null) {
+      try (CSVParser parser = CSVParser.parse(text, recordFormat)) {
+        if (parser.iterator().hasNext()) {
+          return text;
+        }
+      }
+    }
+    return null;
+  }
+
+  private static List<CSVRecord> parseChunk(String text, CSVFormat format) throws IOException {
+    final List<CSVRecord> records = new ArrayList<>();
+    try (CSVParser parser = CSVParser.parse(text, format)) {
+      for (CSVRecord record : parser) {
+        if (notEmpty(record)) {
+          records.add(record);
+        }
+      }
+    }
+    return records;
+  }
+
+  private Reader reader(InputStream in, Charset charset) throws IOException {
+    try {
+      final InputStream stream =
+          gzip ? new GZIPInputStream(in, bufferSize) : new BufferedInputStream(in, bufferSize);
+      return new InputStreamReader(BOMInputStream.builder().setInputStream(stream).get(), charset);
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+  }
+
+  private Writer writer(OutputStream out, Charset charset) throws IOException {
+    final OutputStream stream =
+        gzip ? new GZIPOutputStream(out, bufferSize) : new BufferedOutputStream(out, bufferSize);
+    final Writer writer = new OutputStreamWriter(stream, charset);
+    return async ? new AsyncWriter(writer, bufferSize) : new BufferedWriter(writer, bufferSize);
+  }
+
   /**
    * Return a stream of {@link CSVRecord} by filtering out empty records.
    *
@@ -126,7 +399,7 @@ public final class CSVFile {
    * @return array of header names
    */
   public static String[] header(CSVParser parser) {
-    return parser.getHeaderNames().stream().toArray(String[]::new);
+    return parser.getHeaderNames().toArray(new String[0]);
   }
 
   /**
@@ -136,7 +409,7 @@ public final class CSVFile {
    * @return array of values
    */
   public static String[] values(CSVRecord record) {
-    return StreamSupport.stream(record.spliterator(), false).toArray(String[]::new);
+    return record.values().clone();
   }
 
   /**
@@ -146,7 +419,12 @@ public final class CSVFile {
    * @return true if record is empty
    */
   public static boolean isEmpty(CSVRecord record) {
-    return record.toMap().values().stream().allMatch(StringUtils::isBlank);
+    for (int i = 0; i < record.size(); i++) {
+      if (StringUtils.notBlank(record.get(i))) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
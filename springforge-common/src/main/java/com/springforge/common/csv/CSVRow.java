@@ -0,0 +1,155 @@
+package com.springforge.common.csv;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The {@link CSVRow} is a reusable holder of the typed values of a record, as declared by a {@link
+ * CSVSchema}.
+ *
+ * <p>Numeric and date values are kept as primitives, so reading a record into the same row again
+ * and again doesn't allocate anything but the string values.
+ */
+public final class CSVRow {
+
+  private final CSVSchema schema;
+
+  final long[] longs;
+  final int[] scales;
+  final BigDecimal[] decimals;
+  final String[] strings;
+  final boolean[] nulls;
+
+  long recordNumber;
+
+  CSVRow(CSVSchema schema) {
+    final int size = schema.size();
+    this.schema = schema;
+    this.longs = new long[size];
+    this.scales = new int[size];
+    this.decimals = new BigDecimal[size];
+    this.strings = new String[size];
+    this.nulls = new boolean[size];
+  }
+
+  public CSVSchema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Get the number of the record last read into this row.
+   *
+   * @return the record number
+   */
+  public long getRecordNumber() {
+    return recordNumber;
+  }
+
+  /**
+   * Check whether the value of the given column is missing or empty.
+   *
+   * @param index the column index in the schema
+   * @return true if null
+   */
+  public boolean isNull(int index) {
+    return nulls[index];
+  }
+
+  /**
+   * Get the value of the given {@link CSVSchema.Type#INT} column.
+   *
+   * @param index the column index in the schema
+   * @return the value, or 0 if null
+   */
+  public int getInt(int index) {
+    check(index, CSVSchema.Type.INT);
+    return (int) longs[index];
+  }
+
+  /**
+   * Get the value of the given {@link CSVSchema.Type#LONG} column.
+   *
+   * @param index the column index in the schema
+   * @return the value, or 0 if null
+   */
+  public long getLong(int index) {
+    check(index, CSVSchema.Type.LONG);
+    return longs[index];
+  }
+
+  /**
+   * Get the value of the given {@link CSVSchema.Type#DECIMAL} column.
+   *
+   * @param index the column index in the schema
+   * @return the value, or null
+   */
+  public BigDecimal getDecimal(int index) {
+    check(index, CSVSchema.Type.DECIMAL);
+    if (nulls[index]) {
+      return null;
+    }
+    return decimals[index] == null
+        ? BigDecimal.valueOf(longs[index], scales[index])
+        : decimals[index];
+  }
+
+  /**
+   * Get the value of the given {@link CSVSchema.Type#DECIMAL} column as double.
+   *
+   * @param index the column index in the schema
+   * @return the value, or 0 if null
+   */
+  public double getDouble(int index) {
+    check(index, CSVSchema.Type.DECIMAL);
+    if (nulls[index]) {
+      return 0;
+    }
+    if (decimals[index] != null) {
+      return decimals[index].doubleValue();
+    }
+    return scales[index] == 0 ? longs[index] : longs[index] / Math.pow(10, scales[index]);
+  }
+
+  /**
+   * Get the value of the given {@link CSVSchema.Type#DATE} column.
+   *
+   * @param index the column index in the schema
+   * @return the value, or null
+   */
+  public LocalDate getDate(int index) {
+    check(index, CSVSchema.Type.DATE);
+    return nulls[index] ? null : LocalDate.ofEpochDay(longs[index]);
+  }
+
+  /**
+   * Get the value of the given {@link CSVSchema.Type#DATE} column as epoch day.
+   *
+   * @param index the column index in the schema
+   * @return the value, or 0 if null
+   * @see LocalDate#toEpochDay()
+   */
+  public long getEpochDay(int index) {
+    check(index, CSVSchema.Type.DATE);
+    return longs[index];
+  }
+
+  /**
+   * Get the value of the given {@link CSVSchema.Type#STRING} column.
+   *
+   * @param index the column index in the schema
+   * @return the value, or null
+   */
+  public String getString(int index) {
+    check(index, CSVSchema.Type.STRING);
+    return strings[index];
+  }
+
+  private void check(int index, CSVSchema.Type type) {
+    if (schema.getType(index) != type) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Column %s is of type %s, not %s",
+              schema.getName(index), schema.getType(index), type));
+    }
+  }
+}
@@ -0,0 +1,262 @@
+package com.springforge.common.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The {@link CSVRowReader} reads the columns declared by a {@link CSVSchema} into reusable {@link
+ * CSVRow} holders.
+ *
+ * <p>Numeric and ISO date values are parsed straight from the bytes of the file, without creating
+ * any intermediate {@link String}. Empty records are skipped.
+ *
+ * <pre>
+ * try (CSVRowReader reader = CSVFile.DEFAULT.withFirstRecordAsHeader().read(file, schema)) {
+ *   CSVRow row = schema.newRow();
+ *   while (reader.read(row)) {
+ *     int age = row.getInt(1);
+ *   }
+ * }
+ * </pre>
+ */
+public final class CSVRowReader implements Closeable {
+
+  // max digits of an unscaled decimal that always fit in a long
+  private static final int MAX_LONG_DIGITS = 18;
+
+  private final MappedCSVReader reader;
+  private final CSVSchema schema;
+  private final int[] indexes;
+
+  CSVRowReader(MappedCSVReader reader, CSVSchema schema) {
+    if (reader.getHeaderNames().isEmpty()) {
+      throw new IllegalArgumentException("The csv format must define a header.");
+    }
+    this.reader = reader;
+    this.schema = schema;
+    this.indexes = new int[schema.size()];
+    for (int i = 0; i < indexes.length; i++) {
+      indexes[i] = reader.getHeaderNames().indexOf(schema.getName(i));
+      if (indexes[i] < 0) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Mapping for %s not found, expected one of %s",
+                schema.getName(i), reader.getHeaderNames()));
+      }
+    }
+  }
+
+  /**
+   * Read the next non-empty record into the given row.
+   *
+   * @param row the row holder created with {@link CSVSchema#newRow()}
+   * @return true if a record was read, false at the end of file
+   * @throws IOException if the file can't be read or a value can't be parsed
+   */
+  public boolean read(CSVRow row) throws IOException {
+    if (row.getSchema() != schema) {
+      throw new IllegalArgumentException("The row was not created for this schema.");
+    }
+    while (reader.next()) {
+      if (reader.isEmpty()) {
+        continue;
+      }
+      for (int i = 0; i < indexes.length; i++) {
+        try {
+          read(row, i, indexes[i]);
+        } catch (NumberFormatException | ArithmeticException | DateTimeException e) {
+          throw new IOException(
+              String.format(
+                  "Invalid %s value for column %s at record %d",
+                  schema.getType(i), schema.getName(i), reader.getRecordNumber()),
+              e);
+        }
+      }
+      row.recordNumber = reader.getRecordNumber();
+      return true;
+    }
+    return false;
+  }
+
+  private void read(CSVRow row, int column, int index) {
+    row.longs[column] = 0;
+    row.scales[column] = 0;
+    row.decimals[column] = null;
+    row.strings[column] = null;
+    row.nulls[column] = true;
+
+    if (index >= reader.size()) {
+      return;
+    }
+
+    final CSVSchema.Type type = schema.getType(column);
+    if (type == CSVSchema.Type.STRING) {
+      row.strings[column] = reader.get(index);
+      row.nulls[column] = row.strings[column] == null;
+      return;
+    }
+
+    int start = reader.fieldStart(index);
+    int end = reader.fieldEnd(index);
+    while (start < end && isTrimmable(reader.byteAt(start))) {
+      start++;
+    }
+    while (end > start && isTrimmable(reader.byteAt(end - 1))) {
+      end--;
+    }
+    if (start == end || reader.isNullValue(index)) {
+      return;
+    }
+    row.nulls[column] = false;
+
+    // escaped values are rare, parse them the slow way
+    if (reader.isEscaped(index)) {
+      final String value = reader.get(index).trim();
+      switch (type) {
+        case INT:
+          row.longs[column] = Integer.parseInt(value);
+          break;
+        case LONG:
+          row.longs[column] = Long.parseLong(value);
+          break;
+        case DECIMAL:
+          row.decimals[column] = new BigDecimal(value);
+          break;
+        default:
+          row.longs[column] = parseDate(value, schema.getFormat(column));
+      }
+      return;
+    }
+
+    switch (type) {
+      case INT:
+        row.longs[column] = parseInt(index, start, end);
+        break;
+      case LONG:
+        row.longs[column] = parseLong(index, start, end);
+        break;
+      case DECIMAL:
+        parseDecimal(row, column, index, start, end);
+        break;
+      default:
+        row.longs[column] = parseDate(index, start, end, schema.getFormat(column));
+    }
+  }
+
+  // same as String.trim(), the bytes of multi-byte chars are all above 0x7f
+  private static boolean isTrimmable(byte b) {
+    return (b & 0xff) <= ' ';
+  }
+
+  private int parseInt(int index, int start, int end) {
+    final long value = parseLong(index, start, end);
+    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+      throw invalid(index);
+    }
+    return (int) value;
+  }
+
+  private long parseLong(int index, int start, int end) {
+    int p = start;
+    final byte sign = reader.byteAt(p);
+    final boolean negative = sign == '-';
+    if (negative || sign == '+') {
+      p++;
+    }
+    if (p == end) {
+      throw invalid(index);
+    }
+    // accumulate negatively to reach Long.MIN_VALUE
+    long value = 0;
+    for (; p < end; p++) {
+      final int digit = reader.byteAt(p) - '0';
+      if (digit < 0 || digit > 9 || value < (Long.MIN_VALUE + digit) / 10) {
+        throw invalid(index);
+      }
+      value = value * 10 - digit;
+    }
+    if (!negative && value == Long.MIN_VALUE) {
+      throw invalid(index);
+    }
+    return negative ? value : -value;
+  }
+
+  private void parseDecimal(CSVRow row, int column, int index, int start, int end) {
+    int p = start;
+    final byte sign = reader.byteAt(p);
+    final boolean negative = sign == '-';
+    if (negative || sign == '+') {
+      p++;
+    }
+
+    long unscaled = 0;
+    int digits = 0;
+    int scale = -1;
+    for (; p < end; p++) {
+      final byte b = reader.byteAt(p);
+      if (b == '.' && scale < 0) {
+        scale = 0;
+        continue;
+      }
+      if (b < '0' || b > '9' || digits == MAX_LONG_DIGITS) {
+        // exponent, too many digits or invalid, let BigDecimal handle or reject it
+        row.decimals[column] = new BigDecimal(reader.get(index).trim());
+        return;
+      }
+      unscaled = unscaled * 10 + (b - '0');
+      digits++;
+      if (scale >= 0) {
+        scale++;
+      }
+    }
+    if (digits == 0) {
+      throw invalid(index);
+    }
+    row.longs[column] = negative ? -unscaled : unscaled;
+    row.scales[column] = Math.max(scale, 0);
+  }
+
+  private long parseDate(int index, int start, int end, DateTimeFormatter format) {
+    if (format != null && format != DateTimeFormatter.ISO_LOCAL_DATE) {
+      return parseDate(reader.get(index).trim(), format);
+    }
+    // yyyy-MM-dd
+    if (end - start != 10 || reader.byteAt(start + 4) != '-' || reader.byteAt(start + 7) != '-') {
+      return parseDate(reader.get(index).trim(), format);
+    }
+    final int year = parseDigits(index, start, start + 4);
+    final int month = parseDigits(index, start + 5, start + 7);
+    final int day = parseDigits(index, start + 8, end);
+    return LocalDate.of(year, month, day).toEpochDay();
+  }
+
+  private int parseDigits(int index, int start, int end) {
+    int value = 0;
+    for (int p = start; p < end; p++) {
+      final int digit = reader.byteAt(p) - '0';
+      if (digit < 0 || digit > 9) {
+        throw invalid(index);
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  private static long parseDate(String value, DateTimeFormatter format) {
+    return LocalDate.parse(value, format == null ? DateTimeFormatter.ISO_LOCAL_DATE : format)
+        .toEpochDay();
+  }
+
+  private NumberFormatException invalid(int index) {
+    return new NumberFormatException("For input string: \"" + reader.get(index) + "\"");
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
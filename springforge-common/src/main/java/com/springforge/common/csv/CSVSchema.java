@@ -0,0 +1,138 @@
+package com.springforge.common.csv;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The {@link CSVSchema} declares the columns to read from a csv file along with their types.
+ *
+ * <pre>
+ * CSVSchema schema = CSVSchema.EMPTY.withString("name").withInt("age").withDate("birthDate");
+ * </pre>
+ *
+ * @see CSVFile#read(java.io.File, CSVSchema)
+ */
+public final class CSVSchema {
+
+  /** The column types. */
+  public enum Type {
+    STRING,
+    INT,
+    LONG,
+    DECIMAL,
+    DATE
+  }
+
+  public static final CSVSchema EMPTY =
+      new CSVSchema(Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+
+  private final List<String> names;
+  private final List<Type> types;
+  private final List<DateTimeFormatter> formats;
+
+  private CSVSchema(List<String> names, List<Type> types, List<DateTimeFormatter> formats) {
+    this.names = names;
+    this.types = types;
+    this.formats = formats;
+  }
+
+  private CSVSchema with(String name, Type type, DateTimeFormatter format) {
+    if (names.contains(name)) {
+      throw new IllegalArgumentException("Duplicate column: " + name);
+    }
+    final List<String> names = new ArrayList<>(this.names);
+    final List<Type> types = new ArrayList<>(this.types);
+    final List<DateTimeFormatter> formats = new ArrayList<>(this.formats);
+    names.add(name);
+    types.add(type);
+    formats.add(format);
+    return new CSVSchema(
+        Collections.unmodifiableList(names),
+        Collections.unmodifiableList(types),
+        Collections.unmodifiableList(formats));
+  }
+
+  public CSVSchema withString(String name) {
+    return with(name, Type.STRING, null);
+  }
+
+  public CSVSchema withInt(String name) {
+    return with(name, Type.INT, null);
+  }
+
+  public CSVSchema withLong(String name) {
+    return with(name, Type.LONG, null);
+  }
+
+  public CSVSchema withDecimal(String name) {
+    return with(name, Type.DECIMAL, null);
+  }
+
+  /**
+   * Add a date column in {@link DateTimeFormatter#ISO_LOCAL_DATE} format.
+   *
+   * @param name the column name
+   * @return a new schema with the column added
+   */
+  public CSVSchema withDate(String name) {
+    return with(name, Type.DATE, null);
+  }
+
+  public CSVSchema withDate(String name, DateTimeFormatter format) {
+    return with(name, Type.DATE, format);
+  }
+
+  /**
+   * Get the number of columns.
+   *
+   * @return the number of columns
+   */
+  public int size() {
+    return names.size();
+  }
+
+  public String getName(int index) {
+    return names.get(index);
+  }
+
+  public Type getType(int index) {
+    return types.get(index);
+  }
+
+  DateTimeFormatter getFormat(int index) {
+    return formats.get(index);
+  }
+
+  /**
+   * Get the index of the given column.
+   *
+   * @param name the column name
+   * @return the column index or -1 if not declared
+   */
+  public int indexOf(String name) {
+    return names.indexOf(name);
+  }
+
+  /**
+   * Create a new row holder for this schema.
+   *
+   * @return the row holder to pass to {@link CSVRowReader#read(CSVRow)}
+   */
+  public CSVRow newRow() {
+    return new CSVRow(this);
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder("[");
+    for (int i = 0; i < names.size(); i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(names.get(i)).append(':').append(types.get(i));
+    }
+    return builder.append(']').toString();
+  }
+}
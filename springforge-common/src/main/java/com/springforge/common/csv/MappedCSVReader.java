@@ -0,0 +1,518 @@
+package com.springforge.common.csv;
+
+import com.springforge.common.StringUtils;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.commons.csv.CSVFormat;
+
+/**
+ * The {@link MappedCSVReader} reads an UTF-8 csv file through a memory mapped buffer.
+ *
+ * <p>Records are tokenized in place: the reader only keeps the bounds of the fields of the current
+ * record, and a value is decoded to a {@link String} only when it's accessed. It's a cursor, the
+ * values of a record can't be accessed anymore once {@link #next()} is called.
+ *
+ * <pre>
+ * try (MappedCSVReader reader = CSVFile.DEFAULT.withFirstRecordAsHeader().map(file)) {
+ *   while (reader.next()) {
+ *     String name = reader.get("name");
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>Files larger than the mapping window are mapped one window at a time, a record can't be
+ * larger than the window.
+ */
+public final class MappedCSVReader implements Closeable {
+
+  static final int WINDOW_SIZE = 1 << 30;
+
+  private static final int RECORD = 1;
+  private static final int SKIP = 0;
+  private static final int EOF = -1;
+  private static final int NEED_MORE = -2;
+
+  // never equal to a byte value
+  private static final int NONE = 256;
+
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+
+  private final FileChannel channel;
+  private final long fileSize;
+  private final int windowSize;
+
+  private MappedByteBuffer buffer;
+  private long windowStart;
+  private int position;
+
+  private final byte delimiter;
+  private final int quote;
+  private final int escape;
+  private final int comment;
+  private final boolean ignoreEmptyLines;
+  private final boolean ignoreSpaces;
+  private final boolean trim;
+  private final String nullString;
+
+  private final List<String> headerNames;
+  private final Map<String, Integer> headerMap = new HashMap<>();
+
+  // start and end of each field of the current record, relative to the window
+  private int[] bounds = new int[32];
+  private boolean[] quoted = new boolean[16];
+  private boolean[] escaped = new boolean[16];
+  private int size;
+  private long recordNumber;
+
+  private byte[] bytes = new byte[256];
+
+  MappedCSVReader(Path path, CSVFormat format, int windowSize) throws IOException {
+    final String delimiterString = format.getDelimiterString();
+    if (delimiterString.length() != 1) {
+      throw new IllegalArgumentException("Only single char delimiters are supported.");
+    }
+    this.delimiter = (byte) ascii(delimiterString.charAt(0));
+    this.quote = ascii(format.getQuoteCharacter());
+    final int escape = ascii(format.getEscapeCharacter());
+    // an escape same as the quote is just the doubled quote
+    this.escape = escape == quote ? NONE : escape;
+    this.comment = ascii(format.getCommentMarker());
+    this.ignoreEmptyLines = format.getIgnoreEmptyLines();
+    this.ignoreSpaces = format.getIgnoreSurroundingSpaces();
+    this.trim = format.getTrim();
+    this.nullString = format.getNullString();
+    this.windowSize = windowSize;
+
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      this.fileSize = channel.size();
+      map(0);
+      skipBOM();
+      this.headerNames = readHeader(format);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private static int ascii(Character c) {
+    if (c == null) {
+      return NONE;
+    }
+    if (c >= 0x80) {
+      throw new IllegalArgumentException("Only ascii delimiter, quote and escape are supported.");
+    }
+    return c;
+  }
+
+  private void map(long start) throws IOException {
+    windowStart = start;
+    buffer =
+        channel.map(
+            FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, fileSize - start));
+    position = 0;
+  }
+
+  private void skipBOM() {
+    if (buffer.limit() >= 3
+        && buffer.get(0) == (byte) 0xEF
+        && buffer.get(1) == (byte) 0xBB
+        && buffer.get(2) == (byte) 0xBF) {
+      position = 3;
+    }
+  }
+
+  private List<String> readHeader(CSVFormat format) throws IOException {
+    final String[] header = format.getHeader();
+    if (header == null) {
+      return Collections.emptyList();
+    }
+
+    final List<String> names = new ArrayList<>();
+    if (header.length > 0) {
+      names.addAll(Arrays.asList(header));
+      if (format.getSkipHeaderRecord()) {
+        next();
+      }
+    } else if (next()) {
+      for (int i = 0; i < size; i++) {
+        names.add(get(i));
+      }
+    }
+
+    for (int i = 0; i < names.size(); i++) {
+      if (names.get(i) != null) {
+        headerMap.putIfAbsent(names.get(i), i);
+      }
+    }
+    recordNumber = 0;
+    return Collections.unmodifiableList(names);
+  }
+
+  /**
+   * Move to the next record.
+   *
+   * @return true if there is a record, false at the end of file
+   * @throws IOException if the file can't be read or the record is malformed
+   */
+  public boolean next() throws IOException {
+    while (true) {
+      final int start = position;
+      final int result = tokenize();
+      if (result == NEED_MORE) {
+        if (start == 0) {
+          throw new IOException(
+              "Record at offset " + windowStart + " is larger than the mapping window.");
+        }
+        map(windowStart + start);
+        continue;
+      }
+      if (result == EOF) {
+        size = 0;
+        return false;
+      }
+      if (result == RECORD) {
+        recordNumber++;
+        return true;
+      }
+    }
+  }
+
+  private int tokenize() throws IOException {
+    final int limit = buffer.limit();
+    final boolean last = windowStart + limit == fileSize;
+
+    int p = position;
+    if (p >= limit) {
+      return last ? EOF : NEED_MORE;
+    }
+
+    byte b = buffer.get(p);
+    if ((ignoreEmptyLines && (b == CR || b == LF)) || b == comment) {
+      while (b != CR && b != LF) {
+        if (++p >= limit) {
+          if (!last) {
+            return NEED_MORE;
+          }
+          position = p;
+          return SKIP;
+        }
+        b = buffer.get(p);
+      }
+      p = skipEol(p, limit, last);
+      if (p < 0) {
+        return NEED_MORE;
+      }
+      position = p;
+      return SKIP;
+    }
+
+    size = 0;
+    while (true) {
+      boolean escapes = false;
+      if (ignoreSpaces) {
+        while (p < limit && isSpace(buffer.get(p))) {
+          p++;
+        }
+      }
+      if (p < limit && buffer.get(p) == quote) {
+        final int start = ++p;
+        while (true) {
+          if (p >= limit) {
+            if (last) {
+              throw new IOException(
+                  "EOF reached before encapsulated token finished at record " + (recordNumber + 1));
+            }
+            return NEED_MORE;
+          }
+          b = buffer.get(p);
+          if (b == escape) {
+            escapes = true;
+            p += 2;
+          } else if (b == quote) {
+            if (p + 1 >= limit && !last) {
+              return NEED_MORE;
+            }
+            if (p + 1 < limit && buffer.get(p + 1) == quote) {
+              escapes = true;
+              p += 2;
+            } else {
+              break;
+            }
+          } else {
+            p++;
+          }
+        }
+        addField(start, p++, true, escapes);
+        while (p < limit && (b = buffer.get(p)) != delimiter && b != CR && b != LF) {
+          if (!isSpace(b)) {
+            throw new IOException(
+                "Invalid char between encapsulated token and delimiter at record "
+                    + (recordNumber + 1));
+          }
+          p++;
+        }
+      } else {
+        final int start = p;
+        while (p < limit && (b = buffer.get(p)) != delimiter && b != CR && b != LF) {
+          if (b == escape) {
+            escapes = true;
+            p++;
+          }
+          p++;
+        }
+        p = Math.min(p, limit);
+        int end = p;
+        if (ignoreSpaces) {
+          // unless the space is escaped
+          while (end > start
+              && isSpace(buffer.get(end - 1))
+              && (end - 2 < start || buffer.get(end - 2) != escape)) {
+            end--;
+          }
+        }
+        addField(start, end, false, escapes);
+      }
+
+      if (p >= limit) {
+        if (!last) {
+          return NEED_MORE;
+        }
+        position = p;
+        return RECORD;
+      }
+      if (buffer.get(p) == delimiter) {
+        p++;
+        continue;
+      }
+      p = skipEol(p, limit, last);
+      if (p < 0) {
+        return NEED_MORE;
+      }
+      position = p;
+      return RECORD;
+    }
+  }
+
+  // white spaces as per Character.isWhitespace(), but line breaks and the delimiter
+  private boolean isSpace(byte b) {
+    return b != delimiter
+        && (b == ' ' || b == '\t' || b == 0x0b || b == '\f' || (b >= 0x1c && b <= 0x1f));
+  }
+
+  private int skipEol(int p, int limit, boolean last) {
+    if (buffer.get(p) == LF) {
+      return p + 1;
+    }
+    if (p + 1 < limit) {
+      return buffer.get(p + 1) == LF ? p + 2 : p + 1;
+    }
+    return last ? p + 1 : -1;
+  }
+
+  private void addField(int start, int end, boolean quotedField, boolean escapesField) {
+    if (size == quoted.length) {
+      bounds = Arrays.copyOf(bounds, size * 4);
+      quoted = Arrays.copyOf(quoted, size * 2);
+      escaped = Arrays.copyOf(escaped, size * 2);
+    }
+    bounds[size * 2] = start;
+    bounds[size * 2 + 1] = end;
+    quoted[size] = quotedField;
+    escaped[size] = escapesField;
+    size++;
+  }
+
+  /**
+   * Get the header names.
+   *
+   * @return the header names, empty if the format has no header
+   */
+  public List<String> getHeaderNames() {
+    return headerNames;
+  }
+
+  /**
+   * Get the number of the current record, starting from 1 after the header.
+   *
+   * @return the record number
+   */
+  public long getRecordNumber() {
+    return recordNumber;
+  }
+
+  /**
+   * Get the number of values of the current record.
+   *
+   * @return the number of values
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Check whether the given column is mapped by the header.
+   *
+   * @param name the column name
+   * @return true if mapped
+   */
+  public boolean isMapped(String name) {
+    return headerMap.containsKey(name);
+  }
+
+  /**
+   * Get the value of the given column of the current record.
+   *
+   * @param name the column name
+   * @return the decoded value
+   * @throws IllegalArgumentException if the column is not mapped by the header
+   */
+  public String get(String name) {
+    final Integer index = headerMap.get(name);
+    if (index == null) {
+      throw new IllegalArgumentException(
+          String.format("Mapping for %s not found, expected one of %s", name, headerNames));
+    }
+    return index < size ? get(index) : null;
+  }
+
+  /**
+   * Get the value at the given index of the current record.
+   *
+   * @param index the value index
+   * @return the decoded value
+   */
+  public String get(int index) {
+    Objects.checkIndex(index, size);
+    final int start = bounds[index * 2];
+    int length = bounds[index * 2 + 1] - start;
+    if (bytes.length < length) {
+      bytes = new byte[Math.max(length, bytes.length * 2)];
+    }
+    buffer.get(start, bytes, 0, length);
+    if (escaped[index]) {
+      length = unescape(bytes, length, quoted[index]);
+    }
+    final String value = new String(bytes, 0, length, StandardCharsets.UTF_8);
+    return decoded(trim ? value.trim() : value);
+  }
+
+  private String decoded(String value) {
+    return nullString != null && nullString.equals(value) ? null : value;
+  }
+
+  private int unescape(byte[] value, int length, boolean quotedValue) {
+    int j = 0;
+    for (int i = 0; i < length; i++) {
+      final byte b = value[i];
+      if (b == escape && i + 1 < length) {
+        final byte c = value[++i];
+        switch (c) {
+          case 'r':
+            value[j++] = CR;
+            break;
+          case 'n':
+            value[j++] = LF;
+            break;
+          case 't':
+            value[j++] = '\t';
+            break;
+          case 'b':
+            value[j++] = '\b';
+            break;
+          case 'f':
+            value[j++] = '\f';
+            break;
+          default:
+            if (c != delimiter && c != quote && c != escape && c != CR && c != LF) {
+              value[j++] = b;
+            }
+            value[j++] = c;
+        }
+      } else if (quotedValue && b == quote && i + 1 < length && value[i + 1] == quote) {
+        value[j++] = b;
+        i++;
+      } else {
+        value[j++] = b;
+      }
+    }
+    return j;
+  }
+
+  int fieldStart(int index) {
+    return bounds[index * 2];
+  }
+
+  int fieldEnd(int index) {
+    return bounds[index * 2 + 1];
+  }
+
+  boolean isEscaped(int index) {
+    return escaped[index];
+  }
+
+  byte byteAt(int position) {
+    return buffer.get(position);
+  }
+
+  boolean isNullValue(int index) {
+    return nullString != null && get(index) == null;
+  }
+
+  /**
+   * Check whether all the values of the current record are blank, without decoding them unless
+   * they contain non ascii chars.
+   *
+   * @return true if the record is empty
+   */
+  public boolean isEmpty() {
+    for (int i = 0; i < size; i++) {
+      for (int p = bounds[i * 2]; p < bounds[i * 2 + 1]; p++) {
+        final byte b = buffer.get(p);
+        if (b < 0) {
+          if (StringUtils.notBlank(get(i))) {
+            return false;
+          }
+          break;
+        }
+        if (!Character.isWhitespace(b)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Get the values of the current record.
+   *
+   * @return the decoded values
+   */
+  public String[] values() {
+    final String[] values = new String[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = get(i);
+    }
+    return values;
+  }
+
+  @Override
+  public void close() throws IOException {
+    // the mapping itself is released once the buffer is garbage collected
+    buffer = null;
+    channel.close();
+  }
+}
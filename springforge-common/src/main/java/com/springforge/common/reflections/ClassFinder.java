@@ -3,11 +3,14 @@ package com.springforge.common.reflections;
 
 import com.springforge.common.ClassUtils;
 import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /** The helper class to find sub types of a given super class. */
 public final class ClassFinder<T> {
@@ -19,6 +22,12 @@ public final class ClassFinder<T> {
   private Set<String> packages = new LinkedHashSet<>();
   private Set<String> pathPatterns = new LinkedHashSet<>();
 
+  private Path cacheDirectory;
+
+  private int parallelism = 1;
+
+  private boolean indexed;
+
   private boolean matchAll = true;
 
   ClassFinder(Class<T> type, ClassLoader loader) {
@@ -64,6 +73,54 @@ public final class ClassFinder<T> {
     return this;
   }
 
+  /**
+   * Keep the scanned class index of jars in the given directory so that later searches, including
+   * the ones from another JVM run, only rescan the jars that have changed.
+   *
+   * @param directory the cache directory
+   * @return same class finder instance
+   */
+  public ClassFinder<T> cacheIn(Path directory) {
+    Objects.requireNonNull(directory, "directory must not be null");
+    this.cacheDirectory = directory;
+    return this;
+  }
+
+  /**
+   * Read the class files in parallel using all the available processors.
+   *
+   * @return same class finder instance
+   */
+  public ClassFinder<T> parallel() {
+    return parallel(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Read the class files in parallel, one jar or directory at a time per thread.
+   *
+   * @param parallelism the number of threads
+   * @return same class finder instance
+   */
+  public ClassFinder<T> parallel(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be greater than 0");
+    }
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * Search using the build time {@link ClassIndex} of the modules instead of reading the class
+   * files. Jars and directories without an index are still scanned, and the index is not used at
+   * all if an URL pattern is given.
+   *
+   * @return same class finder instance
+   */
+  public ClassFinder<T> indexed() {
+    this.indexed = true;
+    return this;
+  }
+
   /**
    * Only search classes with the given annotation.
    *
@@ -86,10 +143,10 @@ public final class ClassFinder<T> {
     return this;
   }
 
-  private boolean hasAnnotation(Class<?> cls) {
+  private boolean hasAnnotation(Predicate<Class<? extends Annotation>> present) {
     boolean matched = false;
     for (Class<? extends Annotation> annotation : annotations) {
-      if (cls.isAnnotationPresent(annotation)) {
+      if (present.test(annotation)) {
         if (!matchAll) {
           return true;
         }
@@ -101,36 +158,100 @@ public final class ClassFinder<T> {
     return annotations.size() == 0 || matched;
   }
 
-  /**
-   * Find the classes.
-   *
-   * @return set of matched classes
-   */
-  public Set<Class<? extends T>> find() {
-    final Set<Class<? extends T>> classes = new HashSet<>();
+  private boolean hasAnnotation(Class<?> cls) {
+    return hasAnnotation(cls::isAnnotationPresent);
+  }
+
+  private boolean hasAnnotation(ClassMetadata metadata) {
+    return hasAnnotation(annotation -> metadata.hasAnnotation(annotation.getName()));
+  }
+
+  private boolean mayHaveAnnotation(ClassMetadata metadata) {
+    // inherited annotations are not visible in the class file, the class must be loaded
+    return hasAnnotation(
+        annotation ->
+            metadata.hasAnnotation(annotation.getName())
+                || annotation.isAnnotationPresent(Inherited.class));
+  }
+
+  private ClassScanner createScanner() {
     final ClassScanner scanner = new ClassScanner(loader, packages.toArray(new String[] {}));
 
     for (String pattern : pathPatterns) {
       scanner.byURL(pattern);
     }
+    if (cacheDirectory != null) {
+      scanner.cacheIn(cacheDirectory);
+    }
+    scanner.parallel(parallelism);
+    if (indexed) {
+      scanner.indexed();
+    }
+    return scanner;
+  }
 
-    if (Object.class == type && annotations.isEmpty()) {
+  private Set<ClassMetadata> findAnnotated(ClassScanner scanner) {
+    if (annotations.isEmpty()) {
       throw new IllegalStateException("please provide some annnotations.");
     }
+    final Set<ClassMetadata> all = new LinkedHashSet<>();
+    for (Class<?> a : annotations) {
+      all.addAll(scanner.getTypesMetadataAnnotatedWith(a.getName()));
+    }
+    return all;
+  }
+
+  /**
+   * Find the classes without loading them.
+   *
+   * <p>The annotations are matched against the ones declared in the class files, so inherited
+   * annotations are not taken into account.
+   *
+   * @return set of matched class metadata
+   */
+  public Set<ClassMetadata> findMetadata() {
+    final ClassScanner scanner = createScanner();
+    if (Object.class == type) {
+      return Collections.unmodifiableSet(findAnnotated(scanner));
+    }
+    final Set<ClassMetadata> found = new LinkedHashSet<>();
+    for (ClassMetadata metadata : scanner.getSubTypesMetadataOf(type.getName())) {
+      if (hasAnnotation(metadata)) {
+        found.add(metadata);
+      }
+    }
+    return Collections.unmodifiableSet(found);
+  }
+
+  /**
+   * Find the classes.
+   *
+   * @return set of matched classes
+   */
+  public Set<Class<? extends T>> find() {
+    final Set<Class<? extends T>> classes = new HashSet<>();
+    final ClassScanner scanner = createScanner();
+
     if (Object.class == type) {
-      for (Class<?> a : annotations) {
-        for (Class<?> c : scanner.getTypesAnnotatedWith(a)) {
-          if (type.isAssignableFrom(c)) {
-            classes.add(c.asSubclass(type));
-          }
+      for (ClassMetadata metadata : findAnnotated(scanner)) {
+        try {
+          classes.add(metadata.load().asSubclass(type));
+        } catch (Throwable e) {
         }
       }
       return Collections.unmodifiableSet(classes);
     }
-    final Set<Class<? extends T>> all = scanner.getSubTypesOf(type);
-    for (Class<? extends T> cls : all) {
-      if (hasAnnotation(cls)) {
-        classes.add(cls);
+    for (ClassMetadata metadata : scanner.getSubTypesMetadataOf(type.getName())) {
+      // skip loading the classes that can't match
+      if (!mayHaveAnnotation(metadata)) {
+        continue;
+      }
+      try {
+        final Class<?> cls = metadata.load();
+        if (hasAnnotation(cls)) {
+          classes.add(cls.asSubclass(type));
+        }
+      } catch (Throwable e) {
       }
     }
     return Collections.unmodifiableSet(classes);
@@ -0,0 +1,138 @@
+package com.springforge.common.reflections;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * The {@link ClassIndex} is a build time snapshot of the super types and annotations of the
+ * compiled classes of a module, stored at {@link #LOCATION}.
+ *
+ * <p>With {@link ClassFinder#indexed()}, the search is answered from the indexes found on the
+ * classpath without reading any class file, so every module to search must ship its index. The
+ * index has one line per class:
+ *
+ * <pre>
+ * com.example.Foo|com.example.Base,java.io.Serializable|com.example.Marker
+ * </pre>
+ */
+public final class ClassIndex {
+
+  /** The location of the index file within the classes output or jar. */
+  public static final String LOCATION = "META-INF/springforge/class-index";
+
+  private static final char FIELD_SEPARATOR = '|';
+  private static final char NAME_SEPARATOR = ',';
+
+  private static final String CLASS_SUFFIX = ".class";
+
+  private ClassIndex() {}
+
+  /**
+   * Generate the index of the compiled classes found in the given directory.
+   *
+   * <p>The index is written to {@link #LOCATION} inside the same directory so that it's packaged
+   * along with the classes. Nested classes are skipped as the classpath scan only reads the top
+   * level ones.
+   *
+   * @param classesDir the classes output directory
+   * @return the generated index file
+   * @throws IOException if the classes can't be read or the index can't be written
+   */
+  public static Path write(Path classesDir) throws IOException {
+    final Map<String, ClassScanner.Collector> classes = new TreeMap<>();
+    try (Stream<Path> files = Files.walk(classesDir)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        final String name = classesDir.relativize(file).toString().replace('\\', '/');
+        if (!name.endsWith(CLASS_SUFFIX)
+            || name.startsWith("META-INF")
+            || name.endsWith("module-info.class")
+            || name.endsWith("package-info.class")
+            || name.indexOf('$') != -1) {
+          // only top level classes, like the classpath scan
+          continue;
+        }
+        try (InputStream is = Files.newInputStream(file)) {
+          classes.put(
+              name.substring(0, name.length() - CLASS_SUFFIX.length()).replace('/', '.'),
+              ClassScanner.Collector.read(is));
+        }
+      }
+    }
+
+    final Path target = classesDir.resolve(LOCATION);
+    Files.createDirectories(target.getParent());
+
+    final Joiner joiner = Joiner.on(NAME_SEPARATOR);
+    try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+      for (Map.Entry<String, ClassScanner.Collector> entry : classes.entrySet()) {
+        final ClassScanner.Collector collector = entry.getValue();
+        writer.write(entry.getKey());
+        writer.write(FIELD_SEPARATOR);
+        if (collector.superNames != null) {
+          joiner.appendTo(writer, collector.superNames);
+        }
+        writer.write(FIELD_SEPARATOR);
+        if (collector.annotations != null) {
+          joiner.appendTo(writer, collector.annotations);
+        }
+        writer.newLine();
+      }
+    }
+    return target;
+  }
+
+  /**
+   * Read all the indexes visible to the given class loader.
+   *
+   * @param loader the class loader
+   * @return the indexed classes, empty if no index is found
+   * @throws IOException if an index can't be read
+   */
+  static Map<String, ClassScanner.Collector> read(ClassLoader loader) throws IOException {
+    final Map<String, ClassScanner.Collector> classes = new HashMap<>();
+    final Enumeration<URL> urls = loader.getResources(LOCATION);
+    final Splitter fields = Splitter.on(FIELD_SEPARATOR);
+    final Splitter names = Splitter.on(NAME_SEPARATOR).omitEmptyStrings();
+
+    while (urls.hasMoreElements()) {
+      final URL url = urls.nextElement();
+      try (BufferedReader reader =
+          new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          final List<String> parts = fields.splitToList(line);
+          if (parts.size() != 3) {
+            continue;
+          }
+          // in case of duplicate classes, first one would win
+          classes.putIfAbsent(
+              parts.get(0),
+              new ClassScanner.Collector(
+                  toSet(names.splitToList(parts.get(1))), toSet(names.splitToList(parts.get(2)))));
+        }
+      }
+    }
+    return classes;
+  }
+
+  private static Set<String> toSet(List<String> names) {
+    return names.isEmpty() ? null : new LinkedHashSet<>(names);
+  }
+}
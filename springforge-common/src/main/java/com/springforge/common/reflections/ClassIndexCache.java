@@ -0,0 +1,223 @@
+package com.springforge.common.reflections;
+
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * The {@link ClassIndexCache} keeps the data gathered by {@link ClassScanner.Collector} on disk,
+ * one index file per jar, so that unchanged jars are not read again with ASM on the next run.
+ *
+ * <p>An index file is named after the hash of the jar path followed by the hash of its size and
+ * last modified time, so a changed jar simply misses the cache and gets rescanned, and the index of
+ * its previous version is deleted. Classes from directories are never cached as their content
+ * changes too often to be worth tracking.
+ */
+final class ClassIndexCache {
+
+  private static final int VERSION = 1;
+
+  private static final String INDEX_SUFFIX = ".idx";
+  private static final String CLASS_SUFFIX = ".class";
+
+  private final Path directory;
+
+  private final Map<Path, Map<String, ClassScanner.Collector>> jars = new ConcurrentHashMap<>();
+
+  /**
+   * Create a new {@link ClassIndexCache} storing index files in the given directory.
+   *
+   * @param directory the cache directory
+   */
+  ClassIndexCache(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Find the collected data of the given class.
+   *
+   * @param className the class name
+   * @param resource the class file url
+   * @return the collector or null if the class is not from a jar
+   * @throws IOException if the jar can't be read
+   */
+  ClassScanner.Collector get(String className, URL resource) throws IOException {
+    final Path jar = toJarPath(resource);
+    if (jar == null) {
+      return null;
+    }
+    try {
+      return jars.computeIfAbsent(jar, this::loadUnchecked).get(className);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private Map<String, ClassScanner.Collector> loadUnchecked(Path jar) {
+    try {
+      return load(jar);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Map<String, ClassScanner.Collector> load(Path jar) throws IOException {
+    final BasicFileAttributes attrs = Files.readAttributes(jar, BasicFileAttributes.class);
+    final String prefix =
+        Hashing.sha256().hashString(jar.toAbsolutePath().toString(), StandardCharsets.UTF_8) + "-";
+    final String stamp = attrs.size() + "|" + attrs.lastModifiedTime().toMillis();
+    final Path file =
+        directory.resolve(
+            prefix + Hashing.sha256().hashString(stamp, StandardCharsets.UTF_8) + INDEX_SUFFIX);
+
+    if (Files.isRegularFile(file)) {
+      try {
+        return read(file);
+      } catch (IOException e) {
+        // corrupted index, rescan the jar
+      }
+    }
+
+    final Map<String, ClassScanner.Collector> classes = scan(jar);
+    try {
+      write(file, classes);
+      deleteStale(prefix, file);
+    } catch (IOException e) {
+      // cache is best effort, the scan result is still usable
+    }
+    return classes;
+  }
+
+  /** Delete the indexes of the previous versions of a jar. */
+  private void deleteStale(String prefix, Path current) throws IOException {
+    try (DirectoryStream<Path> files =
+        Files.newDirectoryStream(directory, prefix + "*" + INDEX_SUFFIX)) {
+      for (Path file : files) {
+        if (!file.equals(current)) {
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+  }
+
+  private static Map<String, ClassScanner.Collector> scan(Path jar) throws IOException {
+    final Map<String, ClassScanner.Collector> classes = new HashMap<>();
+    try (JarFile file = new JarFile(jar.toFile())) {
+      final Enumeration<JarEntry> entries = file.entries();
+      while (entries.hasMoreElements()) {
+        final JarEntry entry = entries.nextElement();
+        final String name = entry.getName();
+        if (entry.isDirectory() || !name.endsWith(CLASS_SUFFIX) || name.startsWith("META-INF")) {
+          continue;
+        }
+        try (InputStream is = file.getInputStream(entry)) {
+          final ClassScanner.Collector collector = ClassScanner.Collector.read(is);
+          final String className =
+              name.substring(0, name.length() - CLASS_SUFFIX.length()).replace('/', '.');
+          classes.put(className, collector);
+        } catch (IllegalArgumentException e) {
+          // unsupported class file version
+        }
+      }
+    }
+    return classes;
+  }
+
+  private static Map<String, ClassScanner.Collector> read(Path file) throws IOException {
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != VERSION) {
+        throw new IOException("invalid index version: " + file);
+      }
+      final int count = in.readInt();
+      final Map<String, ClassScanner.Collector> classes = new HashMap<>(count * 2);
+      for (int i = 0; i < count; i++) {
+        final String name = in.readUTF();
+        final Set<String> superNames = readNames(in);
+        final Set<String> annotations = readNames(in);
+        classes.put(name, new ClassScanner.Collector(superNames, annotations));
+      }
+      return classes;
+    }
+  }
+
+  private static Set<String> readNames(DataInputStream in) throws IOException {
+    final int count = in.readInt();
+    if (count == 0) {
+      return null;
+    }
+    final Set<String> names = new HashSet<>(count * 2);
+    for (int i = 0; i < count; i++) {
+      names.add(in.readUTF());
+    }
+    return names;
+  }
+
+  private void write(Path file, Map<String, ClassScanner.Collector> classes) throws IOException {
+    Files.createDirectories(directory);
+    final Path temp = Files.createTempFile(directory, "index", ".tmp");
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(VERSION);
+        out.writeInt(classes.size());
+        for (Map.Entry<String, ClassScanner.Collector> entry : classes.entrySet()) {
+          out.writeUTF(entry.getKey());
+          writeNames(out, entry.getValue().superNames);
+          writeNames(out, entry.getValue().annotations);
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private static void writeNames(DataOutputStream out, Set<String> names) throws IOException {
+    final Set<String> all = names == null ? Collections.emptySet() : names;
+    out.writeInt(all.size());
+    for (String name : all) {
+      out.writeUTF(name);
+    }
+  }
+
+  private static Path toJarPath(URL resource) {
+    if (!"jar".equals(resource.getProtocol())) {
+      return null;
+    }
+    final String path = resource.getPath();
+    final int index = path.indexOf("!/");
+    if (index == -1 || !path.startsWith("file:")) {
+      return null;
+    }
+    try {
+      return Paths.get(URI.create(path.substring(0, index)));
+    } catch (IllegalArgumentException | FileSystemNotFoundException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.springforge.common.reflections;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The {@link ClassMetadata} describes a class found by the {@link ClassFinder} from its class file
+ * only, without loading it.
+ *
+ * <p>Use {@link #load()} to get the actual class once the metadata has been filtered.
+ */
+public final class ClassMetadata {
+
+  private final String name;
+  private final Set<String> superNames;
+  private final Set<String> annotations;
+  private final URL url;
+  private final ClassLoader loader;
+
+  ClassMetadata(
+      String name, Set<String> superNames, Set<String> annotations, URL url, ClassLoader loader) {
+    this.name = name;
+    this.superNames = superNames == null ? Collections.emptySet() : superNames;
+    this.annotations = annotations == null ? Collections.emptySet() : annotations;
+    this.url = url;
+    this.loader = loader;
+  }
+
+  /**
+   * Get the fully qualified class name.
+   *
+   * @return the class name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Get the names of the direct super class and interfaces.
+   *
+   * @return set of super type names
+   */
+  public Set<String> getSuperNames() {
+    return Collections.unmodifiableSet(superNames);
+  }
+
+  /**
+   * Get the names of the annotations declared on the class.
+   *
+   * <p>Unlike {@link Class#isAnnotationPresent(Class)}, it doesn't include the inherited
+   * annotations but does include the ones with {@code CLASS} retention.
+   *
+   * @return set of annotation names
+   */
+  public Set<String> getAnnotations() {
+    return Collections.unmodifiableSet(annotations);
+  }
+
+  /**
+   * Check whether the class declares the given annotation.
+   *
+   * @param annotation the annotation name
+   * @return true if the annotation is declared on the class
+   */
+  public boolean hasAnnotation(String annotation) {
+    return annotations.contains(annotation);
+  }
+
+  /**
+   * Get the URL of the class file.
+   *
+   * @return the class file URL, or null if the class was found from a {@link ClassIndex}
+   */
+  public URL getURL() {
+    return url;
+  }
+
+  /**
+   * Load the class.
+   *
+   * @return the class
+   * @throws ClassNotFoundException if the class can't be loaded
+   */
+  public Class<?> load() throws ClassNotFoundException {
+    return loader.loadClass(name);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof ClassMetadata)) {
+      return false;
+    }
+    final ClassMetadata other = (ClassMetadata) obj;
+    return name.equals(other.name) && Objects.equals(loader, other.loader);
+  }
+
+  @Override
+  public int hashCode() {
+    return name.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -5,14 +5,23 @@ import com.google.common.reflect.ClassPath.ClassInfo;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Pattern;
 import java.util.stream.Collector;
 
@@ -33,12 +42,29 @@ final class ClassScanner {
   private static final String OBJECT_CLASS_NAME = "java.lang.Object";
   private static final String OBJECT_CLASS_NAME_ASM = "java/lang/Object";
 
+  // shared by the parallel scans, one per parallelism, their threads die out when idle
+  private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
   private ClassLoader loader;
 
   private Map<String, Collector> collectors = new ConcurrentHashMap<>();
+  private Map<String, URL> sources = new ConcurrentHashMap<>();
   private Set<String> packages = new LinkedHashSet<>();
   private Set<Pattern> pathPatterns = new LinkedHashSet<>();
 
+  private Map<String, Set<String>> subTypes;
+  private Map<String, Set<String>> annotated;
+
+  private ScanSession session;
+
+  private ClassIndexCache indexCache;
+
+  private int parallelism = 1;
+
+  private boolean indexed;
+
+  private Map<String, Collector> classIndex;
+
   /**
    * Create a new instance of {@link ClassScanner} using the given {@link ClassLoader}. <br>
    * <br>
@@ -68,17 +94,50 @@ final class ClassScanner {
     return this;
   }
 
+  /**
+   * Keep the scanned class index of jars in the given directory and reuse it on later scans.
+   *
+   * @param directory the cache directory
+   * @return the same finder
+   */
+  public ClassScanner cacheIn(Path directory) {
+    Objects.requireNonNull(directory, "directory must not be null");
+    indexCache = new ClassIndexCache(directory);
+    return this;
+  }
+
+  /**
+   * Read the class files with the given number of threads, one jar or directory at a time per
+   * thread.
+   *
+   * @param parallelism the number of threads, 1 to scan sequentially
+   * @return the same finder
+   */
+  public ClassScanner parallel(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be greater than 0");
+    }
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * Use the build time {@link ClassIndex} found on the classpath instead of reading the class
+   * files. Only the classes listed by an index are taken from it, the class files of jars and
+   * directories without an index are still read. The index is not used if an URL pattern is given.
+   *
+   * @return the same finder
+   */
+  public ClassScanner indexed() {
+    this.indexed = true;
+    return this;
+  }
+
   public <T> Set<Class<? extends T>> getSubTypesOf(Class<T> type) {
     Set<Class<? extends T>> classes = new HashSet<>();
-    Set<String> types;
-    try {
-      types = getSubTypesOf(type.getName());
-    } catch (IOException e) {
-      throw new RuntimeException(e);
-    }
-    for (String sub : types) {
+    for (ClassMetadata sub : getSubTypesMetadataOf(type.getName())) {
       try {
-        Class<?> found = loader.loadClass(sub);
+        Class<?> found = sub.load();
         classes.add(found.asSubclass(type));
       } catch (Throwable e) {
       }
@@ -88,77 +147,181 @@ final class ClassScanner {
 
   public Set<Class<?>> getTypesAnnotatedWith(Class<?> annotation) {
     final Set<Class<?>> classes = new HashSet<>();
-    if (collectors.isEmpty()) {
+    for (ClassMetadata klass : getTypesMetadataAnnotatedWith(annotation.getName())) {
       try {
-        scan();
-      } catch (IOException e) {
-        throw new RuntimeException(e);
+        classes.add(klass.load());
+      } catch (Throwable e) {
       }
     }
+    return Collections.unmodifiableSet(classes);
+  }
 
-    for (String klass : collectors.keySet()) {
-      Set<String> my = collectors.get(klass).annotations;
-      if (my == null) {
-        continue;
-      }
-      if (my.contains(annotation.getName())) {
-        try {
-          classes.add(loader.loadClass(klass));
-        } catch (Throwable e) {
-        }
+  public Set<ClassMetadata> getSubTypesMetadataOf(String type) {
+    try {
+      return toMetadata(getSubTypesOf(type));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public Set<ClassMetadata> getTypesMetadataAnnotatedWith(String annotation) {
+    try {
+      index();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return toMetadata(annotated.getOrDefault(annotation, Collections.emptySet()));
+  }
+
+  private Set<ClassMetadata> toMetadata(Set<String> names) {
+    final Set<ClassMetadata> all = new LinkedHashSet<>();
+    for (String name : names) {
+      final Collector collector = collectors.get(name);
+      if (collector != null) {
+        all.add(
+            new ClassMetadata(
+                name, collector.superNames, collector.annotations, sources.get(name), loader));
       }
     }
-    return Collections.unmodifiableSet(classes);
+    return Collections.unmodifiableSet(all);
   }
 
   private Set<String> getSubTypesOf(String type) throws IOException {
     final Set<String> types = new HashSet<>();
+    final Deque<String> pending = new ArrayDeque<>();
+    index();
+
+    pending.push(type);
+    while (!pending.isEmpty()) {
+      for (String sub : subTypes.getOrDefault(pending.pop(), Collections.emptySet())) {
+        if (types.add(sub)) {
+          pending.push(sub);
+        }
+      }
+    }
+
+    return types;
+  }
+
+  /** Build the reverse lookup maps (super type to direct sub types, annotation to classes). */
+  private void index() throws IOException {
+    if (subTypes != null) {
+      return;
+    }
     if (collectors.isEmpty()) {
       scan();
     }
 
-    for (String klass : collectors.keySet()) {
-      Set<String> my = collectors.get(klass).superNames;
-      if (my == null) {
-        continue;
+    final Map<String, Set<String>> subs = new HashMap<>();
+    final Map<String, Set<String>> annotations = new HashMap<>();
+
+    for (Map.Entry<String, Collector> entry : collectors.entrySet()) {
+      final Collector collector = entry.getValue();
+      if (collector.superNames != null) {
+        for (String name : collector.superNames) {
+          subs.computeIfAbsent(name, k -> new HashSet<>()).add(entry.getKey());
+        }
       }
-      if (my.contains(type)) {
-        types.add(klass);
-        types.addAll(getSubTypesOf(klass));
+      if (collector.annotations != null) {
+        for (String name : collector.annotations) {
+          annotations.computeIfAbsent(name, k -> new HashSet<>()).add(entry.getKey());
+        }
       }
     }
 
-    return types;
+    subTypes = subs;
+    annotated = annotations;
   }
 
   private void scan() throws IOException {
-    final ClassPath classPath = ClassPath.from(loader);
-    final Map<String, ClassInfo> classes = new HashMap<>();
+    if (indexed && pathPatterns.isEmpty()) {
+      classIndex = ClassIndex.read(loader);
+    }
 
-    for (ClassInfo info : classPath.getTopLevelClasses()) {
-      // in case of duplicate classes, first one would win
-      if (!classes.containsKey(info.getName())) {
-        classes.put(info.getName(), info);
+    session = Reflections.session(loader);
+
+    final ClassPath classPath = session.getClassPath();
+    final Map<String, ClassInfo> classes = session.getClasses();
+
+    final Collection<ClassInfo> targets;
+    if (packages.isEmpty()) {
+      targets = classes.values();
+    } else {
+      targets = new ArrayList<>();
+      for (String pkg : packages) {
+        targets.addAll(classPath.getTopLevelClassesRecursive(pkg));
       }
     }
 
-    if (packages.isEmpty()) {
-      for (ClassInfo info : classes.values()) {
-        try {
-          scan(info, classes);
-        } catch (ClassNotFoundException e) {
+    // classes listed by an index are taken from it, the rest come from unindexed locations
+    final Collection<ClassInfo> pending;
+    if (classIndex == null || classIndex.isEmpty()) {
+      pending = targets;
+    } else {
+      pending = new ArrayList<>();
+      for (ClassInfo info : targets) {
+        if (classIndex.containsKey(info.getName())) {
+          scanQuietly(info, classes);
+        } else {
+          pending.add(info);
         }
       }
+    }
+
+    if (parallelism > 1) {
+      scanParallel(pending, classes);
     } else {
-      for (String pkg : packages) {
-        for (ClassInfo info : classPath.getTopLevelClassesRecursive(pkg)) {
-          try {
-            scan(info, classes);
-          } catch (ClassNotFoundException e) {
-          }
-        }
+      for (ClassInfo info : pending) {
+        scanQuietly(info, classes);
+      }
+    }
+  }
+
+  private void scanParallel(
+      final Collection<ClassInfo> targets, final Map<String, ClassInfo> classes) {
+    // one task per jar or directory, classes of the same location are read in sequence
+    final Map<String, List<ClassInfo>> locations = new LinkedHashMap<>();
+    for (ClassInfo info : targets) {
+      final URL url = urlOf(info);
+      if (url != null) {
+        final String location = url.toString();
+        locations
+            .computeIfAbsent(
+                location.substring(0, location.length() - info.getResourceName().length()),
+                k -> new ArrayList<>())
+            .add(info);
       }
     }
+
+    pool(parallelism)
+        .submit(
+            () ->
+                locations.values().parallelStream()
+                    .forEach(infos -> infos.forEach(info -> scanQuietly(info, classes))))
+        .join();
+  }
+
+  private static ForkJoinPool pool(int parallelism) {
+    if (parallelism == ForkJoinPool.getCommonPoolParallelism()) {
+      return ForkJoinPool.commonPool();
+    }
+    return POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+  }
+
+  private static URL urlOf(ClassInfo info) {
+    try {
+      return info.url();
+    } catch (NoSuchElementException e) {
+      // listed by the classpath but not visible to the loader
+      return null;
+    }
+  }
+
+  private void scanQuietly(final ClassInfo info, final Map<String, ClassInfo> classes) {
+    try {
+      scan(info, classes);
+    } catch (ClassNotFoundException e) {
+    }
   }
 
   private void scan(final ClassInfo info, final Map<String, ClassInfo> classes)
@@ -169,7 +332,22 @@ final class ClassScanner {
       return;
     }
 
-    final URL resource = info.url();
+    final Collector listed = classIndex == null ? null : classIndex.get(info.getName());
+    if (listed != null) {
+      collectors.put(info.getName(), listed);
+      if (listed.superNames != null) {
+        for (String base : listed.superNames) {
+          scan(classes.get(base), classes);
+        }
+      }
+      return;
+    }
+
+    final URL resource = urlOf(info);
+    if (resource == null) {
+      return;
+    }
+
     boolean matched = pathPatterns.isEmpty() || 
     pathPatterns.stream()
         .map(p -> p.matcher(resource.toString()).matches())  // Use toString() instead of getFile()
@@ -180,10 +358,22 @@ final class ClassScanner {
       return;
     }
 
-    try (final InputStream is = resource.openStream()) {
-      final ClassReader reader = new ClassReader(is);
-      final Collector collector = new Collector();
-      reader.accept(collector, ASM_FLAGS);
+    try {
+      Collector collector = session.get(resource);
+      if (indexCache != null) {
+        // even on a session hit, so that the jar index gets written
+        final Collector indexed = indexCache.get(info.getName(), resource);
+        if (collector == null) {
+          collector = indexed;
+        }
+      }
+      if (collector == null) {
+        try (final InputStream is = resource.openStream()) {
+          collector = Collector.read(is);
+        }
+      }
+      session.put(resource, collector);
+      sources.put(info.getName(), resource);
       collectors.put(info.getName(), collector);
       if (collector.superNames != null) {
         for (String base : collector.superNames) {
@@ -195,15 +385,28 @@ final class ClassScanner {
     }
   }
 
-  private static class Collector extends ClassVisitor {
+  static class Collector extends ClassVisitor {
 
-    private Set<String> superNames;
-    private Set<String> annotations;
+    Set<String> superNames;
+    Set<String> annotations;
 
     public Collector() {
       super(Opcodes.ASM9);
     }
 
+    Collector(Set<String> superNames, Set<String> annotations) {
+      this();
+      this.superNames = superNames;
+      this.annotations = annotations;
+    }
+
+    static Collector read(InputStream is) throws IOException {
+      final ClassReader reader = new ClassReader(is);
+      final Collector collector = new Collector();
+      reader.accept(collector, ASM_FLAGS);
+      return collector;
+    }
+
     private void acceptSuper(String name) {
       if (name == null) {
         return;
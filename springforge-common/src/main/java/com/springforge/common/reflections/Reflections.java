@@ -1,13 +1,63 @@
 
 package com.springforge.common.reflections;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.reflect.ClassPath;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
 /**
  * The {@link Reflections} utilities provides fast and easy way to search for resources and types.
+ *
+ * <p>The classpath of a {@link ClassLoader} is scanned once and the result is shared by all the
+ * finders using that loader. Use {@link #invalidate(ClassLoader)} when the classpath has changed.
+ *
+ * <p>A session refers to its loader through the classpath snapshot, so it keeps the loader
+ * reachable. Call {@link #invalidate(ClassLoader)} when a loader is discarded, otherwise its
+ * session, softly referenced, is only released once memory runs low.
  */
 public final class Reflections {
 
+  private static final Cache<ClassLoader, ScanSession> SESSIONS =
+      CacheBuilder.newBuilder().softValues().build();
+
   private Reflections() {}
 
+  /**
+   * Get the shared scan session of the given {@link ClassLoader}, scanning its classpath if
+   * required.
+   *
+   * @param loader the class loader
+   * @return the scan session
+   * @throws IOException if the classpath can't be scanned
+   */
+  static ScanSession session(ClassLoader loader) throws IOException {
+    try {
+      return SESSIONS.get(loader, () -> new ScanSession(loader, ClassPath.from(loader)));
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /**
+   * Discard the cached scan results of the given {@link ClassLoader}, which has to be done before
+   * dropping the loader to let it be collected.
+   *
+   * @param loader the class loader
+   */
+  public static void invalidate(ClassLoader loader) {
+    SESSIONS.invalidate(loader);
+  }
+
+  /** Discard the cached scan results of all the class loaders. */
+  public static void invalidateAll() {
+    SESSIONS.invalidateAll();
+  }
+
   /**
    * Return a {@link ClassFinder} to search for the sub types of the given type.
    *
@@ -1,13 +1,10 @@
 
 package com.springforge.common.reflections;
 
-import com.google.common.reflect.ClassPath;
-import com.google.common.reflect.ClassPath.ResourceInfo;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
@@ -19,6 +16,9 @@ import java.util.regex.Pattern;
 /** The {@link ResourceFinder} class provides fluent api to search for resources. */
 public final class ResourceFinder {
 
+  private static final Predicate<Matcher> FULL_MATCH = Matcher::matches;
+  private static final Predicate<Matcher> PARTIAL_MATCH = Matcher::find;
+
   private ClassLoader loader;
   private Set<Pattern> namePatterns = new LinkedHashSet<>();
   private Set<Pattern> pathPatterns = new LinkedHashSet<>();
@@ -59,7 +59,7 @@ public final class ResourceFinder {
    * @return list of URL objects
    */
   public List<URL> match() {
-    return find(Matcher::matches);
+    return find(FULL_MATCH);
   }
 
   /**
@@ -68,49 +68,80 @@ public final class ResourceFinder {
    * @return list of URL objects
    */
   public List<URL> find() {
-    return find(Matcher::find);
+    return find(PARTIAL_MATCH);
   }
 
   private List<URL> find(Predicate<Matcher> matchFunc) {
-    List<URL> all = new ArrayList<>();
-    for (Pattern namePattern : namePatterns) {
-      for (URL file : getResources(namePattern, loader, matchFunc)) {
-        if (pathPatterns.isEmpty()) {
-          all.add(file);
-          continue;
-        }
-        for (Pattern pathPattern : pathPatterns) {
-          Matcher matcher = pathPattern.matcher(file.getFile());
-          boolean matched = matchFunc.test(matcher);
-          if (matched) {
-            all.add(file);
+    final ClassLoader classLoader =
+        loader == null ? Thread.currentThread().getContextClassLoader() : loader;
+    final List<URL> all = new ArrayList<>();
+    try {
+      final ResourceIndex index = Reflections.session(classLoader).getResourceIndex();
+      for (List<String> names : getResourceNames(index, matchFunc == FULL_MATCH)) {
+        for (String name : names) {
+          for (URL file : index.getURLs(name)) {
+            if (pathPatterns.isEmpty()) {
+              all.add(file);
+              continue;
+            }
+            for (Pattern pathPattern : pathPatterns) {
+              Matcher matcher = pathPattern.matcher(file.getFile());
+              boolean matched = matchFunc.test(matcher);
+              if (matched) {
+                all.add(file);
+              }
+            }
           }
         }
       }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
     }
     return Collections.unmodifiableList(all);
   }
 
-  private static List<URL> getResources(
-      Pattern pattern, ClassLoader loader, Predicate<Matcher> matchFunc) {
-    final List<URL> all = new ArrayList<>();
-    final ClassLoader classLoader =
-        loader == null ? Thread.currentThread().getContextClassLoader() : loader;
-    try {
-      for (ResourceInfo info : ClassPath.from(classLoader).getResources()) {
-        String name = info.getResourceName();
-        Matcher matcher = pattern.matcher(name);
-        boolean matched = matchFunc.test(matcher);
-        if (matched) {
-          Enumeration<URL> urls = classLoader.getResources(name);
-          while (urls.hasMoreElements()) {
-            all.add(urls.nextElement());
+  /**
+   * Find the matching resource names of each name pattern, in the order of the patterns.
+   *
+   * <p>The patterns with a literal extension or top level directory are only tested against the
+   * resources of that bucket, the other patterns are all tested in a single pass over the index.
+   */
+  private List<List<String>> getResourceNames(ResourceIndex index, boolean full) {
+    final Predicate<Matcher> matchFunc = full ? FULL_MATCH : PARTIAL_MATCH;
+    final List<Pattern> patterns = new ArrayList<>(namePatterns);
+    final List<List<String>> found = new ArrayList<>();
+    final List<Integer> unindexed = new ArrayList<>();
+
+    for (int i = 0; i < patterns.size(); i++) {
+      final Pattern pattern = patterns.get(i);
+      final List<String> candidates = index.getCandidates(pattern, full);
+      final List<String> names = new ArrayList<>();
+      if (candidates == null) {
+        unindexed.add(i);
+      } else {
+        for (String name : candidates) {
+          if (matchFunc.test(pattern.matcher(name))) {
+            names.add(name);
           }
         }
       }
-    } catch (IOException e) {
-      throw new RuntimeException(e);
+      found.add(names);
     }
-    return Collections.unmodifiableList(all);
+
+    if (!unindexed.isEmpty()) {
+      final Matcher[] matchers = new Matcher[unindexed.size()];
+      for (int i = 0; i < matchers.length; i++) {
+        matchers[i] = patterns.get(unindexed.get(i)).matcher("");
+      }
+      for (String name : index.getNames()) {
+        for (int i = 0; i < matchers.length; i++) {
+          if (matchFunc.test(matchers[i].reset(name))) {
+            found.get(unindexed.get(i)).add(name);
+          }
+        }
+      }
+    }
+
+    return found;
   }
 }
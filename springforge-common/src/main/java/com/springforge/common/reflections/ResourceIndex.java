@@ -0,0 +1,123 @@
+package com.springforge.common.reflections;
+
+import com.google.common.reflect.ClassPath;
+import com.google.common.reflect.ClassPath.ResourceInfo;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The {@link ResourceIndex} keeps the resource names of a classpath bucketed by file extension and
+ * top level directory, so that a name pattern only needs to be tested against the resources that
+ * can possibly match it.
+ */
+final class ResourceIndex {
+
+  // a pattern ending with a literal extension, like "(.*)\.xml" or "\.xml$"
+  private static final Pattern EXTENSION_PATTERN = Pattern.compile("(?<!\\\\)\\\\\\.(\\w+)\\$?$");
+
+  // a pattern starting with a literal top level directory, like "META-INF/.*" or "^i18n/"
+  private static final Pattern DIRECTORY_PATTERN = Pattern.compile("^\\^?([\\w-]+)/");
+
+  private final ClassLoader loader;
+
+  private final List<String> names = new ArrayList<>();
+  private final Map<String, List<String>> byExtension = new HashMap<>();
+  private final Map<String, List<String>> byDirectory = new HashMap<>();
+
+  private final Map<String, List<URL>> urls = new ConcurrentHashMap<>();
+
+  ResourceIndex(ClassPath classPath, ClassLoader loader) {
+    this.loader = loader;
+    for (ResourceInfo info : classPath.getResources()) {
+      final String name = info.getResourceName();
+      final int slash = name.indexOf('/');
+      final int dot = name.lastIndexOf('.');
+      names.add(name);
+      if (dot > name.lastIndexOf('/')) {
+        byExtension.computeIfAbsent(name.substring(dot + 1), k -> new ArrayList<>()).add(name);
+      }
+      if (slash > 0) {
+        byDirectory.computeIfAbsent(name.substring(0, slash), k -> new ArrayList<>()).add(name);
+      }
+    }
+  }
+
+  /**
+   * Get all the resource names.
+   *
+   * @return list of resource names in classpath order
+   */
+  List<String> getNames() {
+    return Collections.unmodifiableList(names);
+  }
+
+  /**
+   * Get the resource names that may match the given pattern.
+   *
+   * @param pattern the name pattern
+   * @param full whether the pattern must match the whole name
+   * @return the candidate names, or null if every resource has to be tested
+   */
+  List<String> getCandidates(Pattern pattern, boolean full) {
+    final String regex = pattern.pattern();
+    if (pattern.flags() != 0 || regex.indexOf('|') > -1 || regex.contains("(?")) {
+      return null;
+    }
+
+    List<String> candidates = null;
+
+    final Matcher extension = EXTENSION_PATTERN.matcher(regex);
+    if (extension.find() && (full || regex.endsWith("$"))) {
+      candidates = byExtension.getOrDefault(extension.group(1), Collections.emptyList());
+    }
+
+    final Matcher directory = DIRECTORY_PATTERN.matcher(regex);
+    if (directory.find() && (full || regex.startsWith("^"))) {
+      final List<String> found =
+          byDirectory.getOrDefault(directory.group(1), Collections.emptyList());
+      if (candidates == null || found.size() < candidates.size()) {
+        candidates = found;
+      }
+    }
+
+    return candidates;
+  }
+
+  /**
+   * Get the URLs of the given resource from all the class path entries.
+   *
+   * @param name the resource name
+   * @return list of resource URLs
+   * @throws IOException if the resources can't be looked up
+   */
+  List<URL> getURLs(String name) throws IOException {
+    try {
+      return urls.computeIfAbsent(name, this::findURLs);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private List<URL> findURLs(String name) {
+    final List<URL> found = new ArrayList<>();
+    try {
+      final Enumeration<URL> all = loader.getResources(name);
+      while (all.hasMoreElements()) {
+        found.add(all.nextElement());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return Collections.unmodifiableList(found);
+  }
+}
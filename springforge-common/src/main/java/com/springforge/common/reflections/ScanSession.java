@@ -0,0 +1,97 @@
+package com.springforge.common.reflections;
+
+import com.google.common.reflect.ClassPath;
+import com.google.common.reflect.ClassPath.ClassInfo;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link ScanSession} holds the classpath snapshot of a {@link ClassLoader} along with the
+ * class data already read from it, so that the finders of the same loader share a single scan.
+ *
+ * @see Reflections#invalidate(ClassLoader)
+ */
+final class ScanSession {
+
+  private final ClassLoader loader;
+
+  private final ClassPath classPath;
+
+  private final Map<String, ClassInfo> classes;
+
+  private final Map<String, ClassScanner.Collector> collectors = new ConcurrentHashMap<>();
+
+  private volatile ResourceIndex resources;
+
+  ScanSession(ClassLoader loader, ClassPath classPath) {
+    final Map<String, ClassInfo> classes = new HashMap<>();
+    for (ClassInfo info : classPath.getTopLevelClasses()) {
+      // in case of duplicate classes, first one would win
+      if (!classes.containsKey(info.getName())) {
+        classes.put(info.getName(), info);
+      }
+    }
+    this.loader = loader;
+    this.classPath = classPath;
+    this.classes = Collections.unmodifiableMap(classes);
+  }
+
+  /**
+   * Get the classpath snapshot.
+   *
+   * @return the classpath
+   */
+  ClassPath getClassPath() {
+    return classPath;
+  }
+
+  /**
+   * Get the top level classes by name, in case of duplicates the first one found is kept.
+   *
+   * @return the top level classes
+   */
+  Map<String, ClassInfo> getClasses() {
+    return classes;
+  }
+
+  /**
+   * Get the index of the resources, building it on first use.
+   *
+   * @return the resource index
+   */
+  ResourceIndex getResourceIndex() {
+    ResourceIndex index = resources;
+    if (index == null) {
+      synchronized (this) {
+        index = resources;
+        if (index == null) {
+          index = resources = new ResourceIndex(classPath, loader);
+        }
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Get the class data already read from the given class file.
+   *
+   * @param url the class file
+   * @return the collected data or null if the class was not read yet
+   */
+  ClassScanner.Collector get(URL url) {
+    return collectors.get(url.toString());
+  }
+
+  /**
+   * Keep the class data read from the given class file.
+   *
+   * @param url the class file
+   * @param collector the collected data
+   */
+  void put(URL url, ClassScanner.Collector collector) {
+    collectors.put(url.toString(), collector);
+  }
+}
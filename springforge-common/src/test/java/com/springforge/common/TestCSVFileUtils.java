@@ -2,17 +2,34 @@
 package com.springforge.common;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.springforge.common.csv.CSVFile;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.csv.CSVRecord;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class TestCSVFileUtils {
 
@@ -57,6 +74,120 @@ public class TestCSVFileUtils {
     }
   }
 
+  @Test
+  public void testParseParallel() throws IOException {
+    File file = new File(ResourceUtils.getResource("grades.csv").getFile());
+    Queue<CSVRecord> found = new ConcurrentLinkedQueue<>();
+    CSVFile.DEFAULT.withFirstRecordAsHeader().parse(file, 3, 4, found::addAll);
+
+    try (CSVParser parser = parse("grades.csv")) {
+      List<String> expected =
+          parser.stream().map(r -> r.get("SSN")).sorted().collect(Collectors.toList());
+      assertEquals(
+          expected, found.stream().map(r -> r.get("SSN")).sorted().collect(Collectors.toList()));
+    }
+
+    // quoted line breaks and empty records
+    String text = "a,b\n1,\"x\ny\"\n,\n2,\"\"\"z\"\"\"\n";
+    List<CSVRecord> records = Collections.synchronizedList(new ArrayList<>());
+    CSVFile.DEFAULT.parse(new StringReader(text), 1, 2, records::addAll);
+    records.sort(Comparator.comparing(r -> r.get(0)));
+
+    assertEquals(3, records.size());
+    assertEquals("x\ny", records.get(0).get(1));
+    assertEquals("\"z\"", records.get(1).get(1));
+
+    // leading blank line, quotes inside unquoted values and other line endings
+    CSVFile csv = CSVFile.DEFAULT.withFirstRecordAsHeader();
+    assertParseParallel(csv, "\nid,desc\n1,a\n2,b\n3,c\n");
+    assertParseParallel(csv, "id,desc\n1,5\" pipe\n2,\"multi\nline\"\n3,end\n");
+    assertParseParallel(csv, "id,desc\r1,a\r2,\"multi\rline\"\r3,c\r");
+    assertParseParallel(csv, "id,desc\r\n1,a\r\n2,\"multi\r\nline\"\r\n3,c");
+  }
+
+  @Test
+  public void testParseParallelFailure() {
+    // a read error once the first records are handed to the parser threads
+    Reader in =
+        new Reader() {
+          private boolean done;
+
+          @Override
+          public int read(char[] buf, int off, int len) throws IOException {
+            if (done) {
+              throw new IOException("broken");
+            }
+            done = true;
+            "a\nb\n".getChars(0, 4, buf, off);
+            return 4;
+          }
+
+          @Override
+          public void close() {}
+        };
+
+    AtomicInteger running = new AtomicInteger();
+    assertThrows(
+        IOException.class,
+        () ->
+            CSVFile.DEFAULT.parse(
+                in,
+                1,
+                2,
+                records -> {
+                  running.incrementAndGet();
+                  Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
+                  running.decrementAndGet();
+                }));
+
+    // the failure is reported once the running tasks are done
+    assertEquals(0, running.get());
+  }
+
+  private void assertParseParallel(CSVFile csv, String text) throws IOException {
+    List<String> expected;
+    try (CSVParser parser = csv.parse(new StringReader(text))) {
+      expected = parser.stream().map(TestCSVFileUtils::join).collect(Collectors.toList());
+    }
+    for (int batchSize = 1; batchSize <= 3; batchSize++) {
+      List<CSVRecord> records = Collections.synchronizedList(new ArrayList<>());
+      csv.parse(new StringReader(text), batchSize, 2, records::addAll);
+      assertEquals(
+          expected.stream().sorted().collect(Collectors.toList()),
+          records.stream().map(TestCSVFileUtils::join).sorted().collect(Collectors.toList()),
+          text);
+    }
+  }
+
+  private static String join(CSVRecord record) {
+    return String.join("|", record.toMap().values());
+  }
+
+  @Test
+  public void testWrite(@TempDir Path dir) throws IOException {
+    CSVFile plain = CSVFile.DEFAULT.withHeader("id", "name").withBufferSize(1024);
+    CSVFile gzip = plain.withGzip().withAsyncWrite();
+
+    for (CSVFile csv : new CSVFile[] {plain, gzip}) {
+      File file = dir.resolve("test.csv").toFile();
+      try (CSVPrinter printer = csv.write(file)) {
+        for (int i = 0; i < 10000; i++) {
+          printer.printRecord(i, "name, " + i);
+        }
+      }
+
+      try (InputStream in = new FileInputStream(file)) {
+        assertEquals(csv == gzip, in.read() == 0x1f && in.read() == 0x8b);
+      }
+
+      try (CSVParser parser = csv.withFirstRecordAsHeader().parse(file)) {
+        List<CSVRecord> records = parser.getRecords();
+        assertEquals(10000, records.size());
+        assertEquals("name, 9999", records.get(9999).get("name"));
+      }
+    }
+  }
+
   private CSVParser parse(String fileName) throws IOException {
     File file = new File(ResourceUtils.getResource(fileName).getFile());
     return CSVFile.DEFAULT.withFirstRecordAsHeader().parse(file);
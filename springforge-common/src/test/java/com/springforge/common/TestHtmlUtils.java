@@ -3,7 +3,10 @@ package com.springforge.common;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import org.junit.jupiter.api.Test;
 
 public class TestHtmlUtils {
@@ -33,4 +36,20 @@ public class TestHtmlUtils {
         "ho&#39; : &quot;a nice quote&quot;", HtmlUtils.escapeAttribute("ho' : \"a nice quote\""));
     assertEquals("&lt;script&gt;", HtmlUtils.escape("<script>"));
   }
+
+  @Test
+  public void testEscapeAppendable() throws IOException {
+    String text = "plain text";
+    assertSame(text, HtmlUtils.escape(text));
+    assertSame(text, HtmlUtils.escapeAttribute(text));
+
+    StringWriter writer = new StringWriter();
+    HtmlUtils.escape("<b>ho' \u2014 hi</b>", writer);
+    HtmlUtils.escape(null, writer);
+    assertEquals("&lt;b&gt;ho&#39; &#8212; hi&lt;/b&gt;", writer.toString());
+
+    StringBuilder builder = new StringBuilder("x=");
+    HtmlUtils.escapeAttribute(new StringBuilder("\"a\" & b"), builder);
+    assertEquals("x=&quot;a&quot; &amp; b", builder.toString());
+  }
 }
@@ -2,7 +2,11 @@
 package com.springforge.common;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.google.common.cache.CacheStats;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 
 public class TestInflector {
@@ -151,4 +155,56 @@ public class TestInflector {
     assertEquals("foo ...", inflector.ellipsize("foo bar baz", 7));
     assertEquals("foo b...", inflector.ellipsize("foo bar baz", 8));
   }
+
+  @Test
+  public void testInflectionsIndex() {
+    assertEquals(Set.of("x", "ch", "ss", "sh"), Inflections.RuleIndex.suffixes("(x|ch|ss|sh)$"));
+    assertEquals(Set.of("fe", "lf", "rf"), Inflections.RuleIndex.suffixes("(?:([^f])fe|([lr])f)$"));
+    assertNull(Inflections.RuleIndex.suffixes("(bus)(es)?$"));
+    assertNull(Inflections.RuleIndex.suffixes("^(ox)en"));
+    assertNull(Inflections.RuleIndex.suffixes("foo|bar$"));
+    assertEquals(Set.of("foo", "bar"), Inflections.RuleIndex.suffixes("foo$|bar$"));
+
+    // rules added last take precedence, including over irregular words
+    Inflections inflect = Inflections.getInstance("test");
+    inflect.plural("$", "s");
+    inflect.irregular("foo", "fooz");
+    assertEquals("fooz", inflect.pluralize("foo"));
+    assertEquals("bars", inflect.pluralize("bar"));
+
+    inflect.plural("oo$", "ooies");
+    assertEquals("fooies", inflect.pluralize("foo"));
+    assertEquals("Fooies", inflect.pluralize("Foo"));
+
+    // the unanchored branch matches anywhere in the word
+    inflect.plural("qux|quz$", "q");
+    assertEquals("qer", inflect.pluralize("quxer"));
+  }
+
+  @Test
+  public void testCache() {
+    inflector.clearCache();
+    long hits = inflector.getCacheStats().get("tableize").hitCount();
+    long misses = inflector.getCacheStats().get("tableize").missCount();
+
+    assertEquals("address_books", inflector.tableize("AddressBook"));
+    assertEquals("address_books", inflector.tableize("AddressBook"));
+
+    CacheStats stats = inflector.getCacheStats().get("tableize");
+    assertEquals(hits + 1, stats.hitCount());
+    assertEquals(misses + 1, stats.missCount());
+
+    // results cached with older rules are not reused
+    assertEquals("zorbs", inflector.pluralize("zorb"));
+    Inflections.getInstance().irregular("zorb", "zorbix");
+    assertEquals("zorbix", inflector.pluralize("zorb"));
+
+    try {
+      inflector.setCacheSize(0);
+      assertTrue(inflector.getCacheStats().isEmpty());
+      assertEquals("address_books", inflector.tableize("AddressBook"));
+    } finally {
+      inflector.setCacheSize(1024);
+    }
+  }
 }
@@ -3,15 +3,35 @@ package com.springforge.common;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.google.common.collect.ImmutableCollection;
 import com.springforge.common.bar.MyBase;
+import com.springforge.common.bar.MyClass1;
+import com.springforge.common.foo.MyClass2;
+import com.springforge.common.foo.MyClass3;
+import com.springforge.common.reflections.ClassIndex;
+import com.springforge.common.reflections.ClassMetadata;
 import com.springforge.common.reflections.Reflections;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 @SuppressWarnings("all")
 public class TestReflections implements Serializable {
@@ -50,8 +70,193 @@ public class TestReflections implements Serializable {
     // assertTrue(all.size() > 0); 
   }
 
+  @Test
+  public void testClassFinderCache(@TempDir Path cache) throws IOException {
+    Set<?> expected = Reflections.findSubTypesOf(ImmutableCollection.class).find();
+
+    Set<?> first = Reflections.findSubTypesOf(ImmutableCollection.class).cacheIn(cache).find();
+    try (Stream<Path> files = Files.list(cache)) {
+      assertTrue(files.count() > 0);
+    }
+
+    Set<?> second = Reflections.findSubTypesOf(ImmutableCollection.class).cacheIn(cache).find();
+
+    assertEquals(expected, first);
+    assertEquals(expected, second);
+  }
+
+  @Test
+  public void testClassFinderCacheStale(@TempDir Path dir) throws IOException {
+    Path jar = dir.resolve("classes.jar");
+    Path cache = dir.resolve("cache");
+
+    writeJar(jar, MyBase.class, MyClass1.class);
+    try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+      assertEquals(2, Reflections.findSubTypesOf(Map.class, loader).cacheIn(cache).find().size());
+    }
+
+    // the index of the replaced jar is deleted
+    writeJar(jar, MyBase.class, MyClass1.class, MyClass3.class);
+    try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+      assertEquals(3, Reflections.findSubTypesOf(Map.class, loader).cacheIn(cache).find().size());
+    }
+    try (Stream<Path> files = Files.list(cache)) {
+      assertEquals(1, files.count());
+    }
+  }
+
+  @Test
+  public void testClassFinderParallel() {
+    Set<?> expected = Reflections.findSubTypesOf(ImmutableCollection.class).find();
+    Set<?> found = Reflections.findSubTypesOf(ImmutableCollection.class).parallel(4).find();
+
+    assertEquals(expected, found);
+  }
+
+  @Test
+  public void testClassFinderIndex(@TempDir Path classes) throws IOException {
+    copyClasses(
+        classes, MyBase.class, MyClass1.class, MyClass2.class, MyClass3.class, MyNested.class);
+
+    assertTrue(Files.exists(ClassIndex.write(classes)));
+
+    try (URLClassLoader loader =
+        new URLClassLoader(new URL[] {classes.toUri().toURL()}, getClass().getClassLoader())) {
+      Set<?> all = Reflections.findSubTypesOf(MyBase.class, loader).indexed().find();
+      assertEquals(3, all.size());
+
+      all =
+          Reflections.findSubTypesOf(MyBase.class, loader).having(Disabled.class).indexed().find();
+      assertEquals(2, all.size());
+
+      // nested classes are left out, like the classpath scan does
+      assertEquals(
+          Reflections.findSubTypesOf(MyBase.class, loader).find(),
+          Reflections.findSubTypesOf(MyBase.class, loader).indexed().find());
+    }
+  }
+
+  @Test
+  public void testClassFinderPartialIndex(@TempDir Path indexed, @TempDir Path plain)
+      throws IOException {
+    copyClasses(indexed, MyBase.class, MyClass1.class);
+    copyClasses(plain, MyClass2.class, MyClass3.class);
+
+    assertTrue(Files.exists(ClassIndex.write(indexed)));
+
+    try (URLClassLoader loader =
+        new URLClassLoader(new URL[] {indexed.toUri().toURL(), plain.toUri().toURL()}, null)) {
+      Set<String> names =
+          Reflections.findSubTypesOf(Map.class, loader).indexed().find().stream()
+              .map(Class::getName)
+              .collect(Collectors.toSet());
+
+      // the unindexed directory is scanned, not hidden by the other one's index
+      assertEquals(
+          Set.of(
+              MyBase.class.getName(),
+              MyClass1.class.getName(),
+              MyClass2.class.getName(),
+              MyClass3.class.getName()),
+          names);
+    }
+  }
+
+  public abstract static class MyNested extends MyBase {}
+
+  @Test
+  public void testClassFinderMetadata() throws ClassNotFoundException {
+    Set<ClassMetadata> all =
+        Reflections.findSubTypesOf(MyBase.class)
+            .having(Disabled.class)
+            .within("com.springforge.common")
+            .findMetadata();
+
+    assertEquals(
+        Set.of(MyClass1.class.getName(), MyClass2.class.getName()),
+        all.stream().map(ClassMetadata::getName).collect(Collectors.toSet()));
+
+    for (ClassMetadata metadata : all) {
+      assertTrue(metadata.getSuperNames().contains(MyBase.class.getName()));
+      assertTrue(metadata.hasAnnotation(Disabled.class.getName()));
+      assertNotNull(metadata.getURL());
+      assertTrue(MyBase.class.isAssignableFrom(metadata.load()));
+    }
+  }
+
+  @Test
+  public void testClassFinderSession(@TempDir Path classes) throws IOException {
+    copyClasses(classes, MyBase.class, MyClass1.class);
+
+    try (URLClassLoader loader = new URLClassLoader(new URL[] {classes.toUri().toURL()}, null)) {
+      assertEquals(2, Reflections.findSubTypesOf(Map.class, loader).find().size());
+
+      // served from the cached scan
+      copyClasses(classes, MyClass3.class);
+      assertEquals(2, Reflections.findSubTypesOf(Map.class, loader).find().size());
+
+      Reflections.invalidate(loader);
+      assertEquals(3, Reflections.findSubTypesOf(Map.class, loader).find().size());
+    }
+  }
+
+  @Test
+  public void testClassFinderSessionRelease(@TempDir Path classes) throws Exception {
+    copyClasses(classes, MyBase.class, MyClass1.class);
+
+    URLClassLoader loader = new URLClassLoader(new URL[] {classes.toUri().toURL()}, null);
+    assertEquals(2, Reflections.findSubTypesOf(Map.class, loader).find().size());
+    loader.close();
+
+    WeakReference<ClassLoader> ref = new WeakReference<>(loader);
+    Reflections.invalidate(loader);
+    loader = null;
+
+    for (int i = 0; i < 50 && ref.get() != null; i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+    assertNull(ref.get());
+  }
+
+  private void copyClasses(Path target, Class<?>... types) throws IOException {
+    for (Class<?> c : types) {
+      String name = c.getName().replace('.', '/') + ".class";
+      Path file = target.resolve(name);
+      Files.createDirectories(file.getParent());
+      try (InputStream is = c.getClassLoader().getResourceAsStream(name)) {
+        Files.copy(is, file);
+      }
+    }
+  }
+
+  private void writeJar(Path jar, Class<?>... types) throws IOException {
+    try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+      for (Class<?> c : types) {
+        String name = c.getName().replace('.', '/') + ".class";
+        out.putNextEntry(new JarEntry(name));
+        try (InputStream is = c.getClassLoader().getResourceAsStream(name)) {
+          is.transferTo(out);
+        }
+        out.closeEntry();
+      }
+    }
+  }
+
   @Test
   public void testResourceFinder() {
     assertNotNull(Reflections.findResources().byName("(.*)\\.java").find());
   }
+
+  @Test
+  public void testResourceFinderPatterns() {
+    List<URL> all = Reflections.findResources().byName("(.*)\\.txt").byName("test\\.yaml").match();
+    assertTrue(all.stream().anyMatch(url -> url.getFile().endsWith("/test.txt")));
+    assertTrue(all.stream().anyMatch(url -> url.getFile().endsWith("/test.yaml")));
+
+    // unindexed patterns give the same result
+    assertEquals(
+        all,
+        Reflections.findResources().byName("(?:(.*)\\.txt)").byName("test\\.yaml").match());
+  }
 } 
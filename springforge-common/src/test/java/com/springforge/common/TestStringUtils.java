@@ -4,9 +4,11 @@ package com.springforge.common;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.google.common.base.Joiner;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 public class TestStringUtils {
@@ -85,6 +87,19 @@ public class TestStringUtils {
     assertEquals("Andre", StringUtils.stripAccent("André"));
   }
 
+  @Test
+  public void testStripUnchanged() {
+    String text = "first line\n  second line\n";
+    assertSame(text, StringUtils.stripIndent(text));
+    assertSame(text, StringUtils.stripAccent(text));
+
+    text = "first line\n  second line";
+    assertSame(text, StringUtils.stripMargin(text));
+
+    assertEquals("a\n\nb\n", StringUtils.stripIndent("  a\n \n  b\n\n"));
+    assertEquals("a\n|b\nc", StringUtils.stripMargin(" |a\n|b\n\t|c\n"));
+  }
+
   @Test
   public void testAsciiChar() {
     assertTrue(StringUtils.isAscii(' '));
@@ -109,6 +124,44 @@ public class TestStringUtils {
     assertFalse(StringUtils.isAscii("é"));
   }
 
+  @Test
+  public void testLongText() {
+    String spaces = " \t\n".repeat(100);
+    String ascii = "<p>Some ascii text</p>".repeat(20);
+    assertTrue(StringUtils.isBlank(spaces));
+    assertTrue(StringUtils.isBlank(spaces + "\u2003" + spaces));
+    assertFalse(StringUtils.isBlank(spaces + "\u00a0"));
+    assertTrue(StringUtils.isAscii(ascii));
+    assertFalse(StringUtils.isAscii(ascii + "é"));
+    assertFalse(StringUtils.isAscii(ascii.substring(0, 200) + "\n" + ascii));
+    assertEquals(ascii.replace("<", "&lt;").replace(">", "&gt;"), HtmlUtils.escape(ascii));
+    assertSame(spaces, HtmlUtils.escape(spaces));
+
+    // surefire runs this once without and once with the module
+    assertEquals(
+        ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(),
+        TextScanner.isVectorized());
+
+    // the vectorized scans, if enabled, must match the scalar ones
+    Random random = new Random(42);
+    char[] chars = {
+      ' ', '\t', '\u001f', 'a', '<', '\'', '\u007f', 'é', '\u2014', '\ufdd1', '\uffff'
+    };
+    for (int n = 0; n < 500; n++) {
+      StringBuilder builder = new StringBuilder();
+      for (int i = random.nextInt(400); i > 0; i--) {
+        builder.append(random.nextInt(8) > 0 ? ' ' : chars[random.nextInt(chars.length)]);
+      }
+      String text = builder.toString();
+      for (int kind = TextScanner.NON_ASCII; kind <= TextScanner.HTML_ESCAPE; kind++) {
+        for (int from = 0; from < text.length(); from += 50) {
+          assertEquals(
+              TextScanner.scan(kind, text, from), TextScanner.indexOf(kind, text, from), text);
+        }
+      }
+    }
+  }
+
   @Test
   public void testSplitToArray() {
     assertEquals(0, StringUtils.splitToArray(null, ",").length);
@@ -2,6 +2,7 @@
 package com.springforge.common;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -86,4 +87,24 @@ public class TestUriBuilder {
             .toUri();
     assertEquals(expected, uri4);
   }
+
+  @Test
+  void toUriString() {
+    for (String uri :
+        new String[] {
+          "https://user@example.com:8443/some/path?q1=a&q2=&q3#top",
+          "https://example.com/a b/é?q=a%20b c#x y",
+          "mailto:someone@example.com",
+          "/relative/path?q=[1]",
+          "//example.com"
+        }) {
+      UriBuilder builder = UriBuilder.from(uri);
+      assertEquals(builder.toUri().toString(), builder.toUriString(), uri);
+    }
+
+    assertEquals(
+        "https://example.com/foo?a=b=c&d=&x&e",
+        UriBuilder.from("https://example.com/foo?&a=b=c&&d=&=x&e").toUriString());
+    assertThrows(IllegalArgumentException.class, () -> UriBuilder.from("/foo#a\nb"));
+  }
 }
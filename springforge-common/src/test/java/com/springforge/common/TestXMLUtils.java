@@ -0,0 +1,176 @@
+package com.springforge.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+public class TestXMLUtils {
+
+  private static final String XML =
+      "<domain-models xmlns=\"urn:test\"><entity name=\"Contact\"/><entity name=\"Address\"/>"
+          + "</domain-models>";
+
+  private static final String XXE =
+      "<?xml version=\"1.0\"?><!DOCTYPE foo SYSTEM \"file:///etc/hostname\"><foo/>";
+
+  private static InputStream input(String xml) {
+    return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testParse() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      Document document = XMLUtils.parse(input(XML));
+      assertEquals("urn:test", document.getDocumentElement().getNamespaceURI());
+      assertEquals(2, XMLUtils.stream(document.getDocumentElement(), "entity").count());
+      // the hardening must survive the reset of the pooled builder
+      assertThrows(SAXException.class, () -> XMLUtils.parse(input(XXE)));
+    }
+  }
+
+  @Test
+  public void testSAXParse() throws Exception {
+    List<String> names = new ArrayList<>();
+    DefaultHandler handler =
+        new DefaultHandler() {
+          @Override
+          public void startElement(String uri, String localName, String qName, Attributes atts)
+              throws SAXException {
+            if ("entity".equals(qName)) {
+              names.add(atts.getValue("name"));
+              try {
+                // nested parsing on the same thread must not share the parser in use
+                XMLUtils.parse(input("<nested/>"), new DefaultHandler());
+              } catch (Exception e) {
+                throw new SAXException(e);
+              }
+            }
+          }
+        };
+
+    for (int i = 0; i < 3; i++) {
+      names.clear();
+      XMLUtils.parse(input(XML), handler);
+      assertEquals(List.of("Contact", "Address"), names);
+      assertThrows(SAXException.class, () -> XMLUtils.parse(input(XXE), new DefaultHandler()));
+    }
+  }
+
+  @Test
+  public void testSAXParserHardening(@TempDir Path dir) throws Exception {
+    Path dtd = Files.writeString(dir.resolve("foo.dtd"), "<!ELEMENT foo EMPTY>");
+    String xml = "<?xml version=\"1.0\"?><!DOCTYPE foo SYSTEM \"" + dtd.toUri() + "\"><foo/>";
+
+    // without secure processing, only the hardening keeps the external DTD out
+    SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
+    parser.parse(input(xml), new DefaultHandler());
+
+    XMLUtils.harden(parser);
+    assertEquals("", parser.getProperty(XMLConstants.ACCESS_EXTERNAL_DTD));
+    assertThrows(SAXException.class, () -> parser.parse(input(xml), new DefaultHandler()));
+
+    // the pooled parsers are reset and hardened again after each use
+    parser.reset();
+    XMLUtils.harden(parser);
+    assertEquals("", parser.getProperty(XMLConstants.ACCESS_EXTERNAL_DTD));
+    assertThrows(SAXException.class, () -> parser.parse(input(xml), new DefaultHandler()));
+  }
+
+  @Test
+  public void testStream() throws Exception {
+    String xml =
+        "<?xml version=\"1.0\"?><data xmlns:x=\"urn:x\">"
+            + "<row id=\"1\"><name><![CDATA[<a>]]></name><row id=\"nested\"/></row>"
+            + "<group><x:row id=\"2\" x:flag=\"y\">text<!-- note --></x:row></group>"
+            + "</data>";
+
+    try (Stream<Element> rows = XMLUtils.stream(input(xml), "row")) {
+      List<Element> elements = rows.collect(Collectors.toList());
+      assertEquals(2, elements.size());
+
+      Element first = elements.get(0);
+      assertEquals("1", first.getAttribute("id"));
+      assertEquals("<a>", XMLUtils.stream(first, "name").findFirst().get().getTextContent());
+      assertEquals(1, XMLUtils.stream(first, "row").count());
+
+      Element second = elements.get(1);
+      assertEquals("urn:x", second.getNamespaceURI());
+      assertEquals("x:row", second.getTagName());
+      assertEquals("y", second.getAttributeNS("urn:x", "flag"));
+      assertEquals("text", second.getTextContent());
+      assertFalse(first.getOwnerDocument() == second.getOwnerDocument());
+    }
+
+    try (Stream<Element> rows = XMLUtils.stream(input(xml), "x:row")) {
+      assertEquals(List.of("2"), rows.map(e -> e.getAttribute("id")).collect(Collectors.toList()));
+    }
+
+    String xxe =
+        "<?xml version=\"1.0\"?><!DOCTYPE data [<!ENTITY xxe SYSTEM \"file:///etc/hostname\">]>"
+            + "<data><row>&xxe;</row></data>";
+    try (Stream<Element> rows = XMLUtils.stream(input(xxe), "row")) {
+      assertThrows(RuntimeException.class, () -> rows.count());
+    }
+  }
+
+  @Test
+  public void testXPath() throws Exception {
+    Document document = XMLUtils.parse(input(XML));
+    Map<String, String> namespaces = Map.of("t", "urn:test");
+
+    XPathExpression expression = XMLUtils.compile("count(//t:entity)", namespaces);
+    // equal bindings hit the cache, whatever the map instance
+    assertSame(expression, XMLUtils.compile("count(//t:entity)", new HashMap<>(namespaces)));
+    assertEquals(2.0, expression.evaluate(document, XPathConstants.NUMBER));
+
+    // one result per expression, duplicates included
+    List<Object> results =
+        XMLUtils.evaluate(
+            document,
+            List.of(
+                "//t:entity[1]/@name",
+                "//t:entity[2]/@name",
+                "//entity/@name",
+                "//t:entity[1]/@name"),
+            namespaces,
+            XPathConstants.STRING);
+    assertEquals(List.of("Contact", "Address", "", "Contact"), results);
+
+    assertEquals(
+        "Contact",
+        XMLUtils.evaluate(
+            document, "//*[local-name()='entity']/@name", null, XPathConstants.STRING));
+    assertThrows(XPathExpressionException.class, () -> XMLUtils.compile("//entity[", null));
+
+    // the namespace bindings are part of the cache key
+    assertNotSame(expression, XMLUtils.compile("count(//t:entity)", null));
+    assertNotSame(expression, XMLUtils.compile("count(//t:entity)", Map.of("t", "urn:other")));
+  }
+}
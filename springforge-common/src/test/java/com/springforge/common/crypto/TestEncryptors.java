@@ -4,10 +4,32 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import com.google.common.io.BaseEncoding;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.SecretKey;
 import org.junit.jupiter.api.Test;
 
 public class TestEncryptors {
@@ -69,4 +91,196 @@ public class TestEncryptors {
   public void testStringGCM() {
     testStringEncryptor(StringEncryptor.gcm(SECRET_KEY));
   }
+
+  @Test
+  public void testKeyCache() {
+    final byte[] value = generateRandomBytes(18);
+    final byte[] encrypted = BytesEncryptor.gcm(SECRET_KEY).encrypt(value);
+
+    // decrypt with another instance, the salt differs from its own encryption salt
+    final BytesEncryptor cached = BytesEncryptor.gcm(SECRET_KEY);
+    final BytesEncryptor uncached =
+        new BytesEncryptor(OperationMode.GCM, PaddingScheme.NONE, SECRET_KEY, 0, Duration.ZERO);
+
+    for (int i = 0; i < 3; i++) {
+      assertTrue(Arrays.equals(value, cached.decrypt(encrypted)));
+      assertTrue(Arrays.equals(value, uncached.decrypt(encrypted)));
+    }
+
+    // derived once, then served from the cache
+    final CacheStats stats = cached.getKeyCache().stats();
+    assertEquals(1, stats.missCount());
+    assertEquals(2, stats.hitCount());
+    assertNull(uncached.getKeyCache());
+  }
+
+  @Test
+  public void testKeyCacheEviction() {
+    final AtomicLong nanos = new AtomicLong();
+    final Ticker ticker =
+        new Ticker() {
+          @Override
+          public long read() {
+            return nanos.get();
+          }
+        };
+    final BytesEncryptor encryptor =
+        new BytesEncryptor(
+            OperationMode.GCM, PaddingScheme.NONE, SECRET_KEY, 2, Duration.ofMinutes(1), ticker);
+    final Cache<ByteBuffer, ? extends SecretKey> cache = encryptor.getKeyCache();
+
+    // each new encryptor encrypts with its own salt
+    final byte[] value = generateRandomBytes(18);
+    encryptor.decrypt(BytesEncryptor.gcm(SECRET_KEY).encrypt(value));
+    final SecretKey first = cache.asMap().values().iterator().next();
+    for (int i = 0; i < 2; i++) {
+      final byte[] encrypted = BytesEncryptor.gcm(SECRET_KEY).encrypt(value);
+      assertTrue(Arrays.equals(value, encryptor.decrypt(encrypted)));
+    }
+
+    // the least recently used key is evicted and wiped
+    assertEquals(2, cache.size());
+    assertTrue(first.isDestroyed());
+    assertFalse(cache.asMap().containsValue(first));
+    cache.asMap().values().forEach(key -> assertFalse(key.isDestroyed()));
+
+    // unused keys expire
+    final List<SecretKey> remaining = new ArrayList<>(cache.asMap().values());
+    nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+    cache.cleanUp();
+    assertEquals(0, cache.size());
+    remaining.forEach(key -> assertTrue(key.isDestroyed()));
+  }
+
+  @Test
+  public void testConcurrentUse() throws Exception {
+    final BytesEncryptor encryptor = BytesEncryptor.gcm(SECRET_KEY);
+    final byte[] value = generateRandomBytes(18);
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<byte[]>> results = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        results.add(executor.submit(() -> encryptor.encrypt(value)));
+      }
+      byte[] last = null;
+      for (Future<byte[]> result : results) {
+        byte[] encrypted = result.get();
+        // a new IV for each value
+        assertFalse(Arrays.equals(last, encrypted));
+        assertTrue(Arrays.equals(value, executor.submit(() -> encryptor.decrypt(encrypted)).get()));
+        last = encrypted;
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private void testStreams(BytesEncryptor encryptor) throws IOException {
+    final byte[] value = generateRandomBytes(100_000);
+
+    ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+    try (OutputStream out = encryptor.encrypt(encrypted)) {
+      out.write(value);
+    }
+
+    // same format as the byte array variant
+    assertTrue(encryptor.isEncrypted(encrypted.toByteArray()));
+    assertTrue(Arrays.equals(value, encryptor.decrypt(encrypted.toByteArray())));
+
+    try (InputStream in = encryptor.decrypt(new ByteArrayInputStream(encrypted.toByteArray()))) {
+      assertTrue(Arrays.equals(value, in.readAllBytes()));
+    }
+
+    ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+    encryptor.decrypt(new ByteArrayInputStream(encryptor.encrypt(value)), decrypted);
+    assertTrue(Arrays.equals(value, decrypted.toByteArray()));
+
+    // plain data is returned as is
+    try (InputStream in = encryptor.decrypt(new ByteArrayInputStream(value))) {
+      assertTrue(Arrays.equals(value, in.readAllBytes()));
+    }
+  }
+
+  @Test
+  public void testStreamsCBC() throws IOException {
+    testStreams(BytesEncryptor.cbc(SECRET_KEY));
+  }
+
+  @Test
+  public void testStreamsGCM() throws IOException {
+    testStreams(BytesEncryptor.gcm(SECRET_KEY));
+  }
+
+  @Test
+  public void testByteBuffers() {
+    for (BytesEncryptor encryptor :
+        Arrays.asList(BytesEncryptor.cbc(SECRET_KEY), BytesEncryptor.gcm(SECRET_KEY))) {
+      final byte[] value = generateRandomBytes(100);
+      final ByteBuffer input = ByteBuffer.allocateDirect(value.length).put(value).flip();
+      final ByteBuffer encrypted = ByteBuffer.allocateDirect(encryptor.getEncryptedSize(100));
+
+      assertFalse(encryptor.isEncrypted(input));
+      assertEquals(encrypted.capacity(), encryptor.encrypt(input, encrypted));
+      encrypted.flip();
+      assertTrue(encryptor.isEncrypted(encrypted));
+
+      final byte[] bytes = new byte[encrypted.remaining()];
+      encrypted.duplicate().get(bytes);
+      assertTrue(Arrays.equals(value, encryptor.decrypt(bytes)));
+
+      final ByteBuffer decrypted = ByteBuffer.allocate(encrypted.remaining());
+      assertEquals(value.length, encryptor.decrypt(encrypted, decrypted));
+      assertTrue(Arrays.equals(value, Arrays.copyOf(decrypted.array(), value.length)));
+    }
+  }
+
+  @Test
+  public void testStringPrefix() {
+    final StringEncryptor encryptor = StringEncryptor.gcm(SECRET_KEY);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(encryptor.isEncrypted(encryptor.encrypt("value" + i)));
+    }
+    assertFalse(encryptor.isEncrypted("JEFFUy="));
+    assertFalse(encryptor.isEncrypted("Hello World!!!"));
+  }
+
+  @Test
+  public void testStringSizes() {
+    final BytesEncryptor bytes = BytesEncryptor.gcm(SECRET_KEY);
+    for (StringEncryptor encryptor :
+        List.of(StringEncryptor.cbc(SECRET_KEY), new StringEncryptor(bytes))) {
+      for (int i = 0; i < 40; i++) {
+        final String value = "é".repeat(i % 3) + "x".repeat(i);
+        assertEquals(value, encryptor.decrypt(encryptor.encrypt(value)));
+      }
+    }
+
+    // same format as encoding the encrypted bytes
+    final String encrypted =
+        BaseEncoding.base64().encode(bytes.encrypt("value".getBytes(StandardCharsets.UTF_8)));
+    assertEquals("value", new StringEncryptor(bytes).decrypt(encrypted));
+  }
+
+  @Test
+  public void testBatch() {
+    final StringEncryptor encryptor = StringEncryptor.gcm(SECRET_KEY);
+    final List<String> values =
+        IntStream.range(0, 1000).mapToObj(i -> "value" + i).collect(Collectors.toList());
+
+    final List<String> encrypted = encryptor.encryptAll(values);
+    assertEquals(values.size(), encrypted.size());
+    assertTrue(encrypted.stream().allMatch(encryptor::isEncrypted));
+    assertEquals(values, encryptor.decryptAll(encrypted));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      assertEquals(values, encryptor.decryptAll(encryptor.encryptAll(values, executor), executor));
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(
+        values,
+        encryptor.decryptAll(encryptor.encryptAll(values.stream())).collect(Collectors.toList()));
+  }
 }
@@ -0,0 +1,55 @@
+package com.springforge.common.csv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import org.junit.jupiter.api.Test;
+
+public class TestAsyncWriter {
+
+  @Test
+  public void testWrite() throws IOException {
+    StringWriter out = new StringWriter();
+    try (Writer writer = new AsyncWriter(out, 4)) {
+      writer.write("a,b\r\n");
+      writer.write('c');
+      writer.write(",d\r\n".toCharArray());
+    }
+    assertEquals("a,b\r\nc,d\r\n", out.toString());
+  }
+
+  @Test
+  public void testWriteFailure() throws IOException {
+    FailingWriter out = new FailingWriter();
+    Writer writer = new AsyncWriter(out, 4);
+    writer.write("a,b\r\n");
+
+    // runtime failures of the target are reported and the target is still closed
+    IOException e = assertThrows(IOException.class, writer::close);
+    assertInstanceOf(IllegalStateException.class, e.getCause());
+    assertTrue(out.closed);
+  }
+
+  private static class FailingWriter extends Writer {
+
+    private volatile boolean closed;
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+      throw new IllegalStateException("disk full");
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
@@ -0,0 +1,221 @@
+package com.springforge.common.csv;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.springforge.common.ResourceUtils;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestMappedCSVReader {
+
+  private static final String TEXT =
+      "name,note\r\n"
+          + "\"Doe, John\",\"said \"\"hi\"\"\"\r\n"
+          + "\r\n"
+          + "Zoë,\"multi\nline\"\n"
+          + " , \n"
+          + "last,";
+
+  @Test
+  public void testMappedReader() throws IOException {
+    for (String name : new String[] {"grades.csv", "grades_bom.csv"}) {
+      File file = new File(ResourceUtils.getResource(name).getFile());
+      CSVFile csv = CSVFile.DEFAULT.withFirstRecordAsHeader();
+
+      List<CSVRecord> expected;
+      try (CSVParser parser = csv.parse(file)) {
+        expected = parser.getRecords();
+      }
+
+      try (MappedCSVReader reader = csv.map(file)) {
+        assertEquals("Lastname", reader.getHeaderNames().get(0));
+        for (CSVRecord record : expected) {
+          assertTrue(reader.next());
+          assertEquals(record.getRecordNumber(), reader.getRecordNumber());
+          assertEquals(record.get("Lastname"), reader.get("Lastname"));
+          assertArrayEquals(CSVFile.values(record), reader.values());
+        }
+        assertFalse(reader.next());
+      }
+    }
+  }
+
+  @Test
+  public void testMappedReaderWindows(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("test.csv");
+    Files.write(file, TEXT.getBytes(StandardCharsets.UTF_8));
+
+    // small windows to check the records crossing window bounds
+    for (int window : new int[] {64, 40, 32}) {
+      try (MappedCSVReader reader =
+          new MappedCSVReader(
+              file,
+              CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build(),
+              window)) {
+        assertTrue(reader.next());
+        assertEquals("Doe, John", reader.get("name"));
+        assertEquals("said \"hi\"", reader.get("note"));
+        assertTrue(reader.next());
+        assertEquals("Zoë", reader.get(0));
+        assertEquals("multi\nline", reader.get(1));
+        assertTrue(reader.next());
+        assertTrue(reader.isEmpty());
+        assertTrue(reader.next());
+        assertEquals("last", reader.get(0));
+        assertEquals("", reader.get(1));
+        assertFalse(reader.next());
+      }
+    }
+
+    try (MappedCSVReader reader =
+        new MappedCSVReader(file, CSVFormat.DEFAULT.builder().setNullString("").build(), 64)) {
+      while (reader.next()) {
+        if (reader.getRecordNumber() == 5) {
+          assertNull(reader.get(1));
+        }
+      }
+      assertEquals(5, reader.getRecordNumber());
+    }
+  }
+
+  @Test
+  public void testMappedReaderSpaces(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("spaces.csv");
+    Files.write(
+        file,
+        ("name , note\n"
+                + "  a b ,\t\"x, y\" \n"
+                + " \" q \"\t, \n"
+                + "c\t\td,e\n")
+            .getBytes(StandardCharsets.UTF_8));
+
+    for (CSVFormat format :
+        new CSVFormat[] {
+          CSVFormat.DEFAULT.builder().setIgnoreSurroundingSpaces(true).build(),
+          CSVFormat.TDF.builder().setQuote(null).build()
+        }) {
+      List<CSVRecord> expected;
+      try (CSVParser parser = CSVParser.parse(file, StandardCharsets.UTF_8, format)) {
+        expected = parser.getRecords();
+      }
+
+      try (MappedCSVReader reader = new MappedCSVReader(file, format, 64)) {
+        for (CSVRecord record : expected) {
+          assertTrue(reader.next());
+          assertArrayEquals(CSVFile.values(record), reader.values());
+        }
+        assertFalse(reader.next());
+      }
+    }
+  }
+
+  @Test
+  public void testRowReader(@TempDir Path dir) throws IOException {
+    File grades = new File(ResourceUtils.getResource("grades.csv").getFile());
+    CSVFile csv = CSVFile.DEFAULT.withFirstRecordAsHeader();
+    CSVSchema schema = CSVSchema.EMPTY.withString("Lastname").withDecimal("Test2");
+
+    List<CSVRecord> expected;
+    try (CSVParser parser = csv.parse(grades)) {
+      expected = parser.getRecords();
+    }
+
+    try (CSVRowReader reader = csv.read(grades, schema)) {
+      CSVRow row = schema.newRow();
+      for (CSVRecord record : expected) {
+        assertTrue(reader.read(row));
+        assertEquals(record.get("Lastname"), row.getString(0));
+        assertEquals(new BigDecimal(record.get("Test2")), row.getDecimal(1));
+      }
+      assertFalse(reader.read(row));
+    }
+
+    Path file = dir.resolve("typed.csv");
+    Files.write(
+        file,
+        ("id,count,amount,date,name\n"
+                + "9223372036854775807,-12,\"-1.50\",2024-02-29,a\n"
+                + "1,,1e3,,\n"
+                + "2,x,0,2024-01-01,c\n")
+            .getBytes(StandardCharsets.UTF_8));
+
+    schema =
+        CSVSchema.EMPTY
+            .withLong("id")
+            .withInt("count")
+            .withDecimal("amount")
+            .withDate("date")
+            .withString("name");
+
+    try (CSVRowReader reader = csv.read(file.toFile(), schema)) {
+      CSVRow row = schema.newRow();
+
+      assertTrue(reader.read(row));
+      assertEquals(Long.MAX_VALUE, row.getLong(0));
+      assertEquals(-12, row.getInt(1));
+      assertEquals(new BigDecimal("-1.50"), row.getDecimal(2));
+      assertEquals(-1.5, row.getDouble(2));
+      assertEquals(LocalDate.of(2024, 2, 29), row.getDate(3));
+      assertEquals("a", row.getString(4));
+
+      assertTrue(reader.read(row));
+      assertEquals(2, row.getRecordNumber());
+      assertTrue(row.isNull(1));
+      assertEquals(new BigDecimal("1e3"), row.getDecimal(2));
+      assertNull(row.getDate(3));
+      assertEquals("", row.getString(4));
+
+      assertThrows(IllegalArgumentException.class, () -> row.getLong(1));
+      assertThrows(IOException.class, () -> reader.read(row));
+    }
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> csv.read(file.toFile(), CSVSchema.EMPTY.withInt("missing")));
+  }
+
+  @Test
+  public void testRowReaderTrim(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("padded.csv");
+    Files.write(
+        file,
+        ("id,amount,date\n"
+                + "\t7\t, 1.25\t,\t2024-02-29 \n"
+                + "\"\t8\t\",\"2.5\t\",\t\t\n")
+            .getBytes(StandardCharsets.UTF_8));
+
+    CSVSchema schema = CSVSchema.EMPTY.withInt("id").withDecimal("amount").withDate("date");
+
+    // tabs are trimmed like spaces, the same way for escaped and plain values
+    CSVFile csv = CSVFile.DEFAULT.withFirstRecordAsHeader();
+    try (CSVRowReader reader = csv.read(file.toFile(), schema)) {
+      CSVRow row = schema.newRow();
+
+      assertTrue(reader.read(row));
+      assertEquals(7, row.getInt(0));
+      assertEquals(new BigDecimal("1.25"), row.getDecimal(1));
+      assertEquals(LocalDate.of(2024, 2, 29), row.getDate(2));
+
+      assertTrue(reader.read(row));
+      assertEquals(8, row.getInt(0));
+      assertEquals(new BigDecimal("2.5"), row.getDecimal(1));
+      assertTrue(row.isNull(2));
+    }
+  }
+}